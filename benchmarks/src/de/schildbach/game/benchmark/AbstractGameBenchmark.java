@@ -0,0 +1,170 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.benchmark;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.Game;
+import de.schildbach.game.GameMove;
+import de.schildbach.game.GamePosition;
+import de.schildbach.game.GameRules;
+import de.schildbach.game.Perft;
+
+/**
+ * Benchmarks common to all games, each operating on all positions of a fixture game. Subclasses provide the rules and
+ * the fixture.
+ * 
+ * @author Andreas Schildbach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractGameBenchmark
+{
+	protected GameRules rules;
+	protected String notation;
+	protected Game game;
+	protected Board initialBoard;
+	protected GameMove[] moves;
+	protected GamePosition[] positions;
+	protected String[] boardNotations;
+
+	protected abstract GameRules rules();
+
+	protected abstract String notation();
+
+	protected int perftDepth()
+	{
+		return 2;
+	}
+
+	@Setup
+	public void setup()
+	{
+		rules = rules();
+		notation = notation();
+		game = rules.newGame(null, notation, Locale.ENGLISH);
+		initialBoard = game.getInitialPosition().getBoard();
+
+		int size = game.getSize();
+		moves = new GameMove[size];
+		positions = new GamePosition[size];
+		boardNotations = new String[size];
+		for (int i = 0; i < size; i++)
+		{
+			moves[i] = game.getMove(i);
+			positions[i] = (GamePosition) game.getPosition(i).clone();
+			boardNotations[i] = rules.formatBoard(positions[i].getBoard());
+		}
+	}
+
+	@Benchmark
+	public void allowedMoves(Blackhole blackhole)
+	{
+		for (GamePosition position : positions)
+		{
+			Collection<? extends GameMove> allowedMoves = rules.allowedMoves(position, initialBoard);
+			blackhole.consume(allowedMoves);
+		}
+	}
+
+	@Benchmark
+	public Game executeMoves()
+	{
+		Game game = rules.newGame(null);
+		for (GameMove move : moves)
+			rules.executeMove(game, move);
+		return game;
+	}
+
+	@Benchmark
+	public Game executeAndUndoMoves()
+	{
+		Game game = executeMoves();
+		while (!game.isEmpty())
+			rules.undoLastMove(game);
+		return game;
+	}
+
+	@Benchmark
+	public Game parseGame()
+	{
+		return rules.newGame(null, notation, Locale.ENGLISH);
+	}
+
+	@Benchmark
+	public String formatGame()
+	{
+		return rules.formatGame(game, Locale.ENGLISH);
+	}
+
+	@Benchmark
+	public void formatBoard(Blackhole blackhole)
+	{
+		for (GamePosition position : positions)
+			blackhole.consume(rules.formatBoard(position.getBoard()));
+	}
+
+	@Benchmark
+	public void parseBoard(Blackhole blackhole)
+	{
+		for (String boardNotation : boardNotations)
+		{
+			Board board = rules.getBoardGeometry().newBoard();
+			rules.parseBoard(board, boardNotation);
+			blackhole.consume(board);
+		}
+	}
+
+	@Benchmark
+	public void cloneAndCompareBoard(Blackhole blackhole)
+	{
+		for (GamePosition position : positions)
+		{
+			Board board = position.getBoard();
+			Board clone = (Board) board.clone();
+			blackhole.consume(clone.equals(board));
+			blackhole.consume(clone.hashCode());
+		}
+	}
+
+	@Benchmark
+	public long perft()
+	{
+		GamePosition position = rules.initialPositionFromBoard(null);
+		return new Perft(rules).perft(position, initialBoard, perftDepth());
+	}
+}
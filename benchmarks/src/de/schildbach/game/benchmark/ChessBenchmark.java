@@ -0,0 +1,65 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+import de.schildbach.game.GameRules;
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.chess.ChessRules.Variant;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class ChessBenchmark extends AbstractGameBenchmark
+{
+	@Param( { "CLASSIC", "SUICIDE", "ANTIKING" })
+	public String variant;
+
+	@Param( { "false", "true" })
+	public boolean bitboards;
+
+	@Override
+	protected GameRules rules()
+	{
+		return new ChessRules(variant(), bitboards);
+	}
+
+	@Override
+	protected String notation()
+	{
+		Variant variant = variant();
+		if (variant == Variant.SUICIDE)
+			return Fixtures.SUICIDE_CHESS;
+		else if (variant == Variant.ANTIKING)
+			return Fixtures.ANTIKING_CHESS;
+		else
+			return Fixtures.CHESS_191_MOVES;
+	}
+
+	@Override
+	protected int perftDepth()
+	{
+		return 3;
+	}
+
+	private Variant variant()
+	{
+		return "CLASSIC".equals(variant) ? null : Variant.valueOf(variant);
+	}
+}
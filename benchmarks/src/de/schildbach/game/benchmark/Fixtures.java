@@ -0,0 +1,97 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.benchmark;
+
+/**
+ * Game fixtures in English notation, shared by the benchmarks. Most of them are taken from the unit tests.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class Fixtures
+{
+	/** 191 moves game from book_1.00.pgn ("Thessaloniki olm") */
+	public static final String CHESS_191_MOVES = "1. d4 d5 2. c4 e6 3. Nf3 c5 4. cxd5 exd5 5. Bg5 Be7 6. Bxe7 Qxe7 7. dxc5 Qxc5 8. Nbd2 Nc6 9. Nb3 Qd6 "
+			+ "10. g3 Nf6 11. Bg2 O-O 12. O-O Be6 13. Rc1 Rac8 14. Nbd4 Nxd4 15. Nxd4 Qb4 16. Rxc8 Rxc8 17. b3 h6 "
+			+ "18. e3 Bg4 19. Qe1 Qa3 20. f3 Bd7 21. Qe2 a5 22. Rb1 h5 23. Bf1 g6 24. Rb2 b6 25. Rc2 Rxc2 26. Qxc2 "
+			+ "Qd6 27. Qc3 Qe5 28. Qe1 Ne8 29. Qd2 Ng7 30. f4 Qd6 31. Bg2 Ne6 32. Ne2 Nc7 33. h3 Qc5 34. Kh2 Bf5 "
+			+ "35. Nd4 Be4 36. g4 hxg4 37. hxg4 Nb5 38. Nxb5 Qxb5 39. g5 Bxg2 40. Kxg2 Qc5 41. Kf3 Qb5 42. Kf2 Qc5 "
+			+ "43. Ke2 Kf8 44. Qb2 Qb5+ 45. Kd2 Qb4+ 46. Kd1 Qe4 47. Qh8+ Ke7 48. Qf6+ Kf8 49. Qxb6 Qb1+ 50. Kd2 "
+			+ "Qxa2+ 51. Ke1 Qa1+ 52. Ke2 Qb2+ 53. Kd3 Qb1+ 54. Kd4 Qe4+ 55. Kc3 Qh1 56. Kb2 Qd1 57. Qc5+ Ke8 58. "
+			+ "Qc3 Qe2+ 59. Kc1 Qb5 60. Kd2 Kd7 61. Ke1 Ke8 62. Kd2 Kd7 63. Qf6 Ke8 64. Qe5+ Kd7 65. Qc3 Ke8 66. "
+			+ "Kc2 Kd7 67. Qd4 Ke8 68. Qc3 Ke7 69. Qf6+ Kf8 70. Qd8+ Kg7 71. Qd6 Kg8 72. Qa3 Qb6 73. Kd3 Kg7 74. "
+			+ "Qa1+ Kg8 75. Qc3 Qa6+ 76. Kd4 a4 77. bxa4 Qxa4+ 78. Kxd5 Qd7+ 79. Kc4 Qe6+ 80. Kd3 Qd5+ 81. Qd4 Qb3+ "
+			+ "82. Ke2 Qc2+ 83. Kf3 Qb1 84. Ke2 Qc2+ 85. Qd2 Qb1 86. Qd8+ Kg7 87. Qd3 Qb7 88. Qd4+ Kg8 89. e4 Qb5+ "
+			+ "90. Kf2 Qb8 91. Ke3 Qb3+ 92. Qd3 Qb6+ 93. Kf3 Qg1 94. Qe3 Qf1+ 95. Kg3 Kh7 96. Qf2 Qd3+ 97. Qf3 Qd2 "
+			+ "98. Kg4 Qd4 99. Qe2 Kg8 100. Kf3 Qc3+ 101. Qe3 Qc2 102. Qd4 Qc1 103. Qe3 Qd1+ 104. Kf2 Qc2+ 105. Qe2 "
+			+ "Qc1 106. Kg3 Qg1+ 107. Kf3 Qh1+ 108. Ke3 Qc1+ 109. Qd2 Qc5+ 110. Kf3 Qb5 111. Qd1 Qc6 112. Qd8+ Kg7 "
+			+ "113. Qd2 Kg8 114. Qd8+ Kg7 115. Ke3 Qc1+ 116. Qd2 Qg1+ 117. Kd3 Qb1+ 118. Ke3 Qg1+ 119. Ke2 Qb1 120. "
+			+ "Qc3+ Kg8 121. Qc8+ Kg7 122. Qc4 Kg8 123. e5 Qb2+ 124. Ke3 Qb6+ 125. Ke4 Qb7+ 126. Kd4 Qa7+ 127. Kd3 "
+			+ "Qa3+ 128. Ke4 Qa8+ 129. Ke3 Qa3+ 130. Kf2 Qb2+ 131. Kf3 Qa3+ 132. Ke2 Qb2+ 133. Kd3 Qa3+ 134. Ke4 "
+			+ "Qa8+ 135. Qd5 Qa4+ 136. Qd4 Qa8+ 137. Ke3 Qa3+ 138. Qd3 Qc1+ 139. Qd2 Qa3+ 140. Kf2 Qb3 141. Qe3 Qc4 "
+			+ "142. Kg3 Qd5 143. Qf3 Qc4 144. f5 gxf5 145. Qxf5 Qc1 146. Qf4 Qg1+ 147. Kh3 Qh1+ 148. Kg4 Qd1+ 149. "
+			+ "Qf3 Qd4+ 150. Kf5 Qd7+ 151. Ke4 Qc6+ 152. Kf4 Qc4+ 153. Qe4 Qf1+ 154. Qf3 Qc4+ 155. Kg3 Qd4 156. Qf4 "
+			+ "Qg1+ 157. Kf3 Qf1+ 158. Kg4 Qd1+ 159. Qf3 Qd4+ 160. Kf5 Qd7+ 161. Ke4 Qc6+ 162. Kf4 Qc4+ 163. Kg3 "
+			+ "Qd4 164. Qe2 Qg1+ 165. Kh4 Qh1+ 166. Kg4 Qg1+ 167. Kf5 Qb1+ 168. Kf4 Qc1+ 169. Qe3 Qc4+ 170. Kg3 Qd5 "
+			+ "171. g6 Qe6 172. gxf7+ Kxf7 173. Qc5 Qa6 174. Qf2+ Ke7 175. Qf5 Qh6 176. Kg2 Qg7+ 177. Kh3 Qh6+ 178. "
+			+ "Kg3 Qg7+ 179. Kh4 Qh6+ 180. Kg4 Qe6 181. Qxe6+ Kxe6 182. Kf4 Ke7 183. Kf5 Kf7 184. e6+ Ke7 185. Ke5 "
+			+ "Ke8 186. Kf6 Kf8 187. Kf5 Ke7 188. Ke5 Ke8 189. Kd6 Kd8 190. e7+ Ke8 191. Ke6";
+
+	/** suicide chess game, played down to a handful of pieces */
+	public static final String SUICIDE_CHESS = "1. e3 c5 2. Ba6 Nxa6 3. Qh5 Qb6 4. Qxc5 Nxc5 5. e4 Nxe4 6. b4 Nxf2 7. Kxf2 Qxb4 8. Bb2 Qxd2 9. Bxg7 "
+			+ "Qxf2 10. Bxf8 Qxg2 11. Bxe7 Qxg1 12. Rxg1 Kxe7 13. Rxg8 Rxg8 14. Nd2 Rg3 15. hxg3 Ke6 16. Nb3 a6 17. "
+			+ "Nc5 b5 18. Nxa6 Bxa6 19. c4 bxc4 20. a3 c3 21. Rf1 Bxf1 22. g4 Rxa3 23. g5 h5";
+
+	/** antiking chess game ending in mate */
+	public static final String ANTIKING_CHESS = "1. Nd4 Ng5 2. dc4 ed5 3. Ne2 Qe6 4. Qd3 fe5 5. cb4 d4 6. Nf4 dxd3 7. Nxe6+ Nxe6 8. Ne4 Bc3 9. Ag7 "
+			+ "Nd4 10. Af7 Bd7 11. Ae6 b5 12. Bxc3 a4 13. Bxd4 Bb5+ 14. Ad7 Bxc4 15. Rc2 Ab2 16. Rxc4 Ac2 17. Nxd6 "
+			+ "b7 18. f4 Ra8+ 19. Ac6 b6 20. Re6 Nf5+ 21. Ab5 a5+ 22. Ab6 c6+ 23. Aa7 Rd8 24. Ab7 Rh8+ 25. Ac8 "
+			+ "Rxd6+ 26. Ad7 Rxe6+ 27. Ad6 Re1 28. Ac5 b5+ 29. Axb4 axa3 30. a4 axa4 31. Rc8+ Kf7 32. Rxh8 bc4+ 33. "
+			+ "Ac3 cb3+ 34. Ad2 e2+ 35. Axd1+ Ac3 36. Bb6+ Ad4 37. Bd8#";
+
+	/** international checkers game ending in a promotion */
+	public static final String CHECKERS = "1. 32-28 20-25 2. 34-29 16-21 3. 37-32 11-16 4. 31-27 6-11 5. 36-31 15-20 6. 42-37 21-26 7. 41-36 "
+			+ "17-21 8. 28-22 19-24 9. 47-42 14-19 10. 46-41 25-30 11. 40-34 9-14 12. 34-25 10-15 13. 45-40 19-23 "
+			+ "14. 50-45 23-34 15. 39-30-19-10 5-14 16. 43-39 20-24 17. 40-34 18-23 18. 33-29 24-33 19. "
+			+ "38-29-18-9-20 15-24 20. 34-30 24-29 21. 39-34 29-40 22. 45-34 4-9 23. 30-24 9-14 24. 24-20 3-9 25. "
+			+ "34-29 8-13 26. 42-38 12-18 27. 38-33 7-12 28. 44-39 2-8 29. 29-24 18-23 30. 33-28 23-29 31. 24-33 "
+			+ "1-7 32. 48-43 12-18 33. 49-44 13-19";
+
+	/** Go game on the default board, up to the first capture */
+	public static final String GO = "1. 9/7 4/2 2. 2/4 2/1 3. 3/5 4/1 4. 8/2 6/1 5. 8/3 4/7 6. 1/8 5/5 7. 9/4 4/8 8. 6/8 5/8 9. 5/6 9/2 "
+			+ "10. 7/2 3/8 11. 2/8 6/2 12. 4/3 7/1 13. 4/6 4/9 14. 7/6 9/9 15. 6/4 3/6 16. 9/6 1/5 17. 7/9 9/5 18. "
+			+ "8/8 8/5 19. 2/5 3/1 20. 2/7 3/7 21. 8/4 5/4 22. 1/6 9/1 23. 5/9 3/4 24. 8/6 3/9 25. 8/1 6/9";
+
+	/** complete Reversi game, including a pass */
+	public static final String REVERSI = "1. e6 f4 2. e3 d6 3. g5 e2 4. e1 f3 5. g4 g2 6. f2 e7 7. h1 g1 8. g3 h6 9. c6 b6 10. f1 h4 11. e8 f8 "
+			+ "12. g8 d1 13. c1 h3 14. c7 b8 15. f5 f6 16. d7 d8 17. a6 c5 18. b4 c4 19. h5 f7 20. b3 h8 21. g6 a5 "
+			+ "22. d3 d2 23. a4 c3 24. c2 a2 25. c8 b5 26. h2 b2 27. a7 b7 28. a8 g7 29. h7 - 30. b1 a1 31. a3";
+
+	/** Dragonchess game 10154, ending in mate */
+	public static final String DRAGONCHESS = "1. W2g3 W2e6 2. H2h3 W2h6 3. P2i3 TxP 4. W/2j2x2i3 RxS 5. W2f3 RxO 6. D/3f2-3e2 R1b1 7. G1f3 RxH 8. "
+			+ "U2c3 RxS 9. RxS RxU 10. R1b8 R1e4 11. G1i5 GxG 12. RxG R1b7 13. RxR HxR 14. T2l4 Gx1k2 15. G1h3 GxO "
+			+ "16. U2j3 W2j6 17. C1e1 G1k2 18. H2j5 T2k6 19. H2i6+ PxH 20. U2h4 PxU 21. W/2i3x2h4 TxM 22. KxT W2i6 "
+			+ "23. W2c3 W2h5 24. W2k3 W2k6 25. W2a3 W2k5 26. TxW WxT 27. T2a4 U2j6 28. G1k5 H2i7 29. GxU HxG 30. "
+			+ "S/1i2-1h3 O2j8 31. C2e1 G1i5 32. W2b3 GxS+ 33. K2g1 M2c5+ 34. W2e3 GxW 35. S1f3 G1g4 36. S1i4 "
+			+ "S/1k7-1j6 37. S1j5 SxS 38. D3j3 W2c6 39. W2b4 M2e7 40. B3k2 W2d6 41. W2d3 U2d7 42. W2i3 H2c8 43. "
+			+ "W2l3 W2e5 44. W2k4 H2i7 45. K2f2 M2f6+ 46. K2e2 H2e6 47. W2e4 H2g4+ 48. K2e3 HxS 49. W2c4 M2f3+ 50. "
+			+ "K3e3 E3g6 51. D3f2 E3e6 52. W2c5 E3e5#";
+
+	private Fixtures()
+	{
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+
+import de.schildbach.game.Game;
+import de.schildbach.game.GameMove;
+import de.schildbach.game.GameRules;
+import de.schildbach.game.common.SingleCoordinateMove;
+import de.schildbach.game.go.GoRules;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class GoBenchmark extends AbstractGameBenchmark
+{
+	@Param( { "9", "13", "19" })
+	public int size;
+
+	@Override
+	protected GameRules rules()
+	{
+		return new GoRules(null, size);
+	}
+
+	@Override
+	protected String notation()
+	{
+		if (size == GoRules.DEFAULT_SIZE)
+			return Fixtures.GO;
+		else
+			return randomGame();
+	}
+
+	/**
+	 * Plays random moves, without passing, until the board is about as full as in the fixture game. The seed is fixed,
+	 * so every run replays the same game.
+	 */
+	private String randomGame()
+	{
+		int fixtureMoves = new GoRules(null).newGame(null, Fixtures.GO, Locale.ENGLISH).getSize();
+		int numMoves = fixtureMoves * size * size / (GoRules.DEFAULT_SIZE * GoRules.DEFAULT_SIZE);
+		Random random = new Random(size);
+		Game game = rules.newGame(null);
+		List<GameMove> moves = new ArrayList<GameMove>();
+		for (int i = 0; i < numMoves; i++)
+		{
+			moves.clear();
+			for (GameMove move : rules.allowedMoves(game))
+				if (!((SingleCoordinateMove) move).isPass())
+					moves.add(move);
+			if (moves.isEmpty())
+				break;
+			rules.executeMove(game, moves.get(random.nextInt(moves.size())));
+		}
+		return rules.formatGame(game, Locale.ENGLISH);
+	}
+}
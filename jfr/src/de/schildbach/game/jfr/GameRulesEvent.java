@@ -0,0 +1,58 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for an operation of the game rules. The event itself is instant; the time the operation took
+ * is in {@link #operationDuration}.
+ * 
+ * @author Andreas Schildbach
+ */
+@Name("de.schildbach.game.GameRulesOperation")
+@Label("Game Rules Operation")
+@Category( { "Game", "Rules" })
+@Description("Move generation, execution, parsing or formatting done by game rules")
+@StackTrace(false)
+final class GameRulesEvent extends Event
+{
+	@Label("Rules")
+	Class<?> rulesClass;
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Position")
+	@Description("Position in the notation of the rules, only for operations that took at least the position threshold")
+	String position;
+
+	@Label("Moves")
+	@Description("Number of moves generated, or of the game for operations on whole games")
+	int moves;
+
+	@Label("Operation Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long operationDuration;
+}
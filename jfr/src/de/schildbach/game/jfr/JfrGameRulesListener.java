@@ -0,0 +1,73 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.jfr;
+
+import de.schildbach.game.GamePosition;
+import de.schildbach.game.GameRules;
+import de.schildbach.game.GameRulesListener;
+
+/**
+ * Emits a {@link GameRulesEvent} for each operation of the game rules, while a flight recording with the event enabled
+ * is running. Positions are only formatted for operations that took at least the position threshold, so that slow
+ * positions can be found without paying for formatting of all others.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class JfrGameRulesListener implements GameRulesListener
+{
+	private static final long DEFAULT_POSITION_THRESHOLD_NANOS = 1000000;
+
+	private final long positionThresholdNanos;
+
+	public JfrGameRulesListener()
+	{
+		this(DEFAULT_POSITION_THRESHOLD_NANOS);
+	}
+
+	public JfrGameRulesListener(long positionThresholdNanos)
+	{
+		this.positionThresholdNanos = positionThresholdNanos;
+	}
+
+	/**
+	 * Installs a listener with the default position threshold of one millisecond.
+	 */
+	public static void install()
+	{
+		GameRules.setListener(new JfrGameRulesListener());
+	}
+
+	public void operationCompleted(GameRules rules, Operation operation, GamePosition position, long nanos, int moves)
+	{
+		GameRulesEvent event = new GameRulesEvent();
+		if (!event.isEnabled())
+			return;
+
+		event.rulesClass = rules.getClass();
+		event.operation = operation.name();
+		event.moves = moves;
+		event.operationDuration = nanos;
+		if (nanos >= positionThresholdNanos && position != null)
+			event.position = rules.formatPosition(position);
+		event.commit();
+	}
+
+	public void positionCloned(GameRules rules)
+	{
+	}
+}
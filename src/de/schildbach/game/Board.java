@@ -18,43 +18,84 @@
 package de.schildbach.game;
 
 import java.io.Serializable;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * Mutable container for pieces, representing a game board.
  * 
  * <p>
- * Board instances will not be re-used between games.
+ * Board instances will not be re-used between games, and are not thread safe.
+ * </p>
+ * 
+ * <p>
+ * Fields are stored in a dense array, indexed by the key each coordinate has been assigned by its geometry. For each
+ * distinct piece and for each color, the keys of the fields occupied are kept in a primitive list, so locating pieces
+ * does not need to scan the board. Empty fields are tracked in a bitset over the keys, so iterating them skips occupied
+ * fields a word at a time. Cloning a board copies arrays only.
  * </p>
  * 
  * @author Andreas Schildbach
  */
 public final class Board implements Cloneable, Serializable
 {
-	public static int instanceCount;
+	private static final int INITIAL_PIECE_CAPACITY = 4;
+	private static final int INITIAL_COLOR_CAPACITY = 2;
 
-	// immutable
-	private Set<Coordinate> coordinates;
+	// immutable, shared with geometry
+	private Coordinate[] coordinates;
+	private int numCoordinates;
+	/** bitset of keys that are used by a coordinate */
+	private long[] validKeys;
 
 	// mutable
-	private Map<Coordinate, Piece> fields;
-	private Map<Piece, Set<Coordinate>> pieceCoordinates;
+	private Piece[] fields;
+	private int numOccupied;
+	private Piece[] pieces;
+	private int numPieces;
+	private int[][] pieceKeys;
+	private int[] pieceCounts;
+	private int[] slots;
+	private int[][] colorKeys;
+	private int[] colorCounts;
+	private int[] colorSlots;
+	/** bitset of keys of empty fields */
+	private long[] emptyKeys;
+	private long zobristKey;
+	/** incremented on every modification */
+	private transient long modCount;
 
 	protected Board()
 	{
-		instanceCount++;
+		Instrumentation.increment(Instrumentation.Counter.BOARD);
 	}
 
-	protected Board(Set<Coordinate> coordinates)
+	protected Board(Coordinate[] coordinates)
 	{
 		this();
-		this.coordinates = Collections.unmodifiableSet(coordinates);
-		this.fields = new HashMap<Coordinate, Piece>();
-		this.pieceCoordinates = new HashMap<Piece, Set<Coordinate>>();
+		this.coordinates = coordinates;
+		this.validKeys = new long[(coordinates.length + 63) >>> 6];
+		for (int key = 0; key < coordinates.length; key++)
+		{
+			if (coordinates[key] != null)
+			{
+				numCoordinates++;
+				validKeys[key >>> 6] |= 1L << key;
+			}
+		}
+		this.emptyKeys = validKeys.clone();
+		this.fields = new Piece[coordinates.length];
+		this.slots = new int[coordinates.length];
+		this.pieces = new Piece[INITIAL_PIECE_CAPACITY];
+		this.pieceKeys = new int[INITIAL_PIECE_CAPACITY][];
+		this.pieceCounts = new int[INITIAL_PIECE_CAPACITY];
+		this.colorKeys = new int[INITIAL_COLOR_CAPACITY][];
+		this.colorCounts = new int[INITIAL_COLOR_CAPACITY];
+		this.colorSlots = new int[coordinates.length];
 	}
 
 	/**
@@ -71,7 +112,7 @@ public final class Board implements Cloneable, Serializable
 		assert piece != null : "no piece to set";
 		assert getPiece(coordinate) == null : coordinate + " is occupied by " + getPiece(coordinate);
 
-		internalSetPiece(coordinate, piece);
+		internalSetPiece(coordinate.getKey(), piece);
 	}
 
 	/**
@@ -85,7 +126,7 @@ public final class Board implements Cloneable, Serializable
 		assert isValidCoordinate(coordinate) : "invalid coordinate: " + coordinate;
 		assert getPiece(coordinate) != null : coordinate + " is already empty";
 
-		internalClearPiece(coordinate);
+		internalClearPiece(coordinate.getKey());
 	}
 
 	/**
@@ -99,7 +140,7 @@ public final class Board implements Cloneable, Serializable
 	{
 		assert isValidCoordinate(coordinate) : "invalid coordinate: " + coordinate;
 
-		return fields.get(coordinate);
+		return fields[coordinate.getKey()];
 	}
 
 	/**
@@ -121,29 +162,96 @@ public final class Board implements Cloneable, Serializable
 
 		assert getPiece(target) == null : target + " is occupied by " + getPiece(target);
 
-		internalClearPiece(source);
-		internalSetPiece(target, movedPiece);
+		internalClearPiece(source.getKey());
+		internalSetPiece(target.getKey(), movedPiece);
 	}
 
-	private void internalSetPiece(Coordinate coordinate, Piece piece)
+	private void internalSetPiece(int key, Piece piece)
 	{
-		fields.put(coordinate, piece);
-		Set<Coordinate> coords = pieceCoordinates.get(piece);
-		if (coords == null)
+		fields[key] = piece;
+		numOccupied++;
+		emptyKeys[key >>> 6] &= ~(1L << key);
+		modCount++;
+		zobristKey ^= Zobrist.key(piece.getZobristSeed(), key);
+
+		int index = pieceIndex(piece);
+		if (index == -1)
+			index = addPiece(piece);
+
+		int[] keys = pieceKeys[index];
+		int count = pieceCounts[index];
+		if (count == keys.length)
+		{
+			keys = Arrays.copyOf(keys, count * 2);
+			pieceKeys[index] = keys;
+		}
+		keys[count] = key;
+		slots[key] = count;
+		pieceCounts[index] = count + 1;
+
+		int color = piece.getColor();
+		assert color >= 0 : "negative color: " + color;
+		if (color >= colorCounts.length)
 		{
-			coords = new HashSet<Coordinate>();
-			pieceCoordinates.put(piece, coords);
+			colorKeys = Arrays.copyOf(colorKeys, color + 1);
+			colorCounts = Arrays.copyOf(colorCounts, color + 1);
 		}
-		coords.add(coordinate);
+		if (colorKeys[color] == null)
+			colorKeys[color] = new int[coordinates.length];
+		int colorCount = colorCounts[color]++;
+		colorKeys[color][colorCount] = key;
+		colorSlots[key] = colorCount;
+	}
+
+	private void internalClearPiece(int key)
+	{
+		Piece piece = fields[key];
+		fields[key] = null;
+		numOccupied--;
+		emptyKeys[key >>> 6] |= 1L << key;
+		modCount++;
+		zobristKey ^= Zobrist.key(piece.getZobristSeed(), key);
+
+		// fill the gap with the last entry of the list
+		int index = pieceIndex(piece);
+		int[] keys = pieceKeys[index];
+		int last = --pieceCounts[index];
+		int slot = slots[key];
+		keys[slot] = keys[last];
+		slots[keys[slot]] = slot;
+
+		// same for the list of the color
+		int color = piece.getColor();
+		int[] colorKeys = this.colorKeys[color];
+		int colorLast = --colorCounts[color];
+		int colorSlot = colorSlots[key];
+		colorKeys[colorSlot] = colorKeys[colorLast];
+		colorSlots[colorKeys[colorSlot]] = colorSlot;
+	}
+
+	private int pieceIndex(Piece piece)
+	{
+		for (int i = 0; i < numPieces; i++)
+			if (pieces[i] == piece || pieces[i].equals(piece))
+				return i;
+
+		return -1;
 	}
 
-	private void internalClearPiece(Coordinate coordinate)
+	private int addPiece(Piece piece)
 	{
-		Piece piece = fields.remove(coordinate);
-		Set<Coordinate> coords = pieceCoordinates.get(piece);
-		coords.remove(coordinate);
-		if (coords.isEmpty())
-			pieceCoordinates.remove(piece);
+		if (numPieces == pieces.length)
+		{
+			int capacity = numPieces * 2;
+			pieces = Arrays.copyOf(pieces, capacity);
+			pieceKeys = Arrays.copyOf(pieceKeys, capacity);
+			pieceCounts = Arrays.copyOf(pieceCounts, capacity);
+		}
+
+		pieces[numPieces] = piece;
+		pieceKeys[numPieces] = new int[INITIAL_PIECE_CAPACITY];
+		pieceCounts[numPieces] = 0;
+		return numPieces++;
 	}
 
 	/**
@@ -151,8 +259,33 @@ public final class Board implements Cloneable, Serializable
 	 */
 	public void clear()
 	{
-		fields.clear();
-		pieceCoordinates.clear();
+		Arrays.fill(fields, null);
+		numOccupied = 0;
+		System.arraycopy(validKeys, 0, emptyKeys, 0, validKeys.length);
+		zobristKey = 0;
+		modCount++;
+		Arrays.fill(pieceCounts, 0);
+		Arrays.fill(colorCounts, 0);
+	}
+
+	/**
+	 * Gets the modification count of the board, which changes whenever a piece is set or cleared. Data derived from the
+	 * board can be cached as long as it stays the same.
+	 */
+	public long getModCount()
+	{
+		return modCount;
+	}
+
+	/**
+	 * Gets the Zobrist key of the board, which is maintained incrementally as pieces are set and cleared. Equal boards
+	 * have equal keys.
+	 * 
+	 * @return 64 bit key
+	 */
+	public long getZobristKey()
+	{
+		return zobristKey;
 	}
 
 	/**
@@ -164,9 +297,9 @@ public final class Board implements Cloneable, Serializable
 	 */
 	public Coordinate locatePiece(Piece piece)
 	{
-		Set<Coordinate> coords = pieceCoordinates.get(piece);
-		if (coords != null)
-			return coords.iterator().next();
+		int index = pieceIndex(piece);
+		if (index != -1 && pieceCounts[index] > 0)
+			return coordinates[pieceKeys[index][0]];
 		else
 			return null;
 	}
@@ -176,15 +309,36 @@ public final class Board implements Cloneable, Serializable
 	 * 
 	 * @param piece
 	 *            piece to locate
-	 * @return coordinates of piece occurences
+	 * @return coordinates of piece occurences, as a read-only view
 	 */
-	public Set<Coordinate> locatePieces(Piece piece)
+	public Set<Coordinate> locatePieces(final Piece piece)
 	{
-		Set<Coordinate> coordinates = pieceCoordinates.get(piece);
-		if (coordinates != null)
-			return coordinates;
-		else
-			return Collections.emptySet();
+		return new AbstractSet<Coordinate>()
+		{
+			@Override
+			public Iterator<Coordinate> iterator()
+			{
+				int index = pieceIndex(piece);
+				if (index != -1)
+					return new KeyIterator(pieceKeys[index], pieceCounts[index]);
+				else
+					return new KeyIterator(null, 0);
+			}
+
+			@Override
+			public int size()
+			{
+				int index = pieceIndex(piece);
+				return index != -1 ? pieceCounts[index] : 0;
+			}
+
+			@Override
+			public boolean contains(Object o)
+			{
+				Coordinate coordinate = (Coordinate) o;
+				return isValidCoordinate(coordinate) && piece.equals(fields[coordinate.getKey()]);
+			}
+		};
 	}
 
 	/**
@@ -196,35 +350,122 @@ public final class Board implements Cloneable, Serializable
 	 */
 	public Set<Coordinate> locatePieces(int color)
 	{
-		Set<Coordinate> result = new HashSet<Coordinate>();
-		for (Map.Entry<Coordinate, Piece> field : fields.entrySet())
+		return new HashSet<Coordinate>(viewPieces(color));
+	}
+
+	/**
+	 * Like {@link #locatePieces(int)}, but without copying.
+	 * 
+	 * @return coordinates of piece occurences, as a read-only view; the board may not be modified while iterating
+	 */
+	public Set<Coordinate> viewPieces(final int color)
+	{
+		return new AbstractSet<Coordinate>()
 		{
-			if (field.getValue().getColor() == color)
-				result.add(field.getKey());
-		}
-		return result;
+			@Override
+			public Iterator<Coordinate> iterator()
+			{
+				return new KeyIterator(color < colorKeys.length ? colorKeys[color] : null, countPieces(color));
+			}
+
+			@Override
+			public int size()
+			{
+				return countPieces(color);
+			}
+
+			@Override
+			public boolean contains(Object o)
+			{
+				Coordinate coordinate = (Coordinate) o;
+				if (!isValidCoordinate(coordinate))
+					return false;
+				Piece piece = fields[coordinate.getKey()];
+				return piece != null && piece.getColor() == color;
+			}
+		};
+	}
+
+	/**
+	 * Counts the pieces of a color on the board.
+	 */
+	public int countPieces(int color)
+	{
+		return color < colorCounts.length ? colorCounts[color] : 0;
+	}
+
+	/**
+	 * Locates a piece of a color by its index, for iterating without allocation. Indexes are only stable as long as the
+	 * board is not modified.
+	 * 
+	 * @param index
+	 *            from 0 (inclusive) to {@link #countPieces(int)} (exclusive)
+	 */
+	public Coordinate locatePiece(int color, int index)
+	{
+		assert index >= 0 && index < countPieces(color) : "index out of range: " + index;
+
+		return coordinates[colorKeys[color][index]];
 	}
 
 	/**
 	 * Locates occupied fields on the board.
 	 * 
-	 * @return coordinates of occupied fields
+	 * @return coordinates of occupied fields, as a read-only view
 	 */
 	public Set<Coordinate> locateOccupiedFields()
 	{
-		return fields.keySet();
+		return new AbstractSet<Coordinate>()
+		{
+			@Override
+			public Iterator<Coordinate> iterator()
+			{
+				return new FieldIterator(true);
+			}
+
+			@Override
+			public int size()
+			{
+				return numOccupied;
+			}
+
+			@Override
+			public boolean contains(Object o)
+			{
+				Coordinate coordinate = (Coordinate) o;
+				return isValidCoordinate(coordinate) && fields[coordinate.getKey()] != null;
+			}
+		};
 	}
 
 	/**
 	 * Locates empty fields on the board.
 	 * 
-	 * @return coordinates of empty fields
+	 * @return coordinates of empty fields, as a read-only view
 	 */
 	public Set<Coordinate> locateEmptyFields()
 	{
-		Set<Coordinate> emptyFields = new HashSet<Coordinate>(coordinates);
-		emptyFields.removeAll(fields.keySet());
-		return emptyFields;
+		return new AbstractSet<Coordinate>()
+		{
+			@Override
+			public Iterator<Coordinate> iterator()
+			{
+				return new FieldIterator(false);
+			}
+
+			@Override
+			public int size()
+			{
+				return numCoordinates - numOccupied;
+			}
+
+			@Override
+			public boolean contains(Object o)
+			{
+				Coordinate coordinate = (Coordinate) o;
+				return isValidCoordinate(coordinate) && fields[coordinate.getKey()] == null;
+			}
+		};
 	}
 
 	private boolean isValidCoordinate(Coordinate coordinate)
@@ -232,7 +473,87 @@ public final class Board implements Cloneable, Serializable
 		if (coordinate == null)
 			return false;
 
-		return coordinates.contains(coordinate);
+		int key = coordinate.getKey();
+		if (key < 0 || key >= coordinates.length)
+			return false;
+
+		Coordinate c = coordinates[key];
+		return c != null && (c == coordinate || c.equals(coordinate));
+	}
+
+	private final class KeyIterator implements Iterator<Coordinate>
+	{
+		private final int[] keys;
+		private final int count;
+		private int index = 0;
+
+		private KeyIterator(int[] keys, int count)
+		{
+			this.keys = keys;
+			this.count = count;
+		}
+
+		public boolean hasNext()
+		{
+			return index < count;
+		}
+
+		public Coordinate next()
+		{
+			if (index >= count)
+				throw new NoSuchElementException();
+
+			return coordinates[keys[index++]];
+		}
+
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Iterates the keys of empty or occupied fields, skipping whole words of the bitset.
+	 */
+	private final class FieldIterator implements Iterator<Coordinate>
+	{
+		private final boolean occupied;
+		private int index = -1;
+		private long word = 0;
+
+		private FieldIterator(boolean occupied)
+		{
+			this.occupied = occupied;
+			advance();
+		}
+
+		private void advance()
+		{
+			while (word == 0 && ++index < validKeys.length)
+				word = occupied ? validKeys[index] & ~emptyKeys[index] : emptyKeys[index];
+		}
+
+		public boolean hasNext()
+		{
+			return word != 0;
+		}
+
+		public Coordinate next()
+		{
+			if (word == 0)
+				throw new NoSuchElementException();
+
+			int key = (index << 6) + Long.numberOfTrailingZeros(word);
+			word &= word - 1;
+			if (word == 0)
+				advance();
+			return coordinates[key];
+		}
+
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
 	}
 
 	@Override
@@ -243,13 +564,16 @@ public final class Board implements Cloneable, Serializable
 
 		Board other = (Board) o;
 
-		return this.fields.equals(other.fields);
+		if (this.zobristKey != other.zobristKey)
+			return false;
+
+		return Arrays.equals(this.fields, other.fields);
 	}
 
 	@Override
 	public int hashCode()
 	{
-		return this.fields.hashCode();
+		return Zobrist.fold(zobristKey);
 	}
 
 	@Override
@@ -258,10 +582,20 @@ public final class Board implements Cloneable, Serializable
 		try
 		{
 			Board other = (Board) super.clone();
-			other.fields = new HashMap<Coordinate, Piece>(this.fields);
-			other.pieceCoordinates = new HashMap<Piece, Set<Coordinate>>(this.pieceCoordinates);
-			for (Map.Entry<Piece, Set<Coordinate>> entry : other.pieceCoordinates.entrySet())
-				entry.setValue(new HashSet<Coordinate>(entry.getValue()));
+			other.fields = this.fields.clone();
+			other.emptyKeys = this.emptyKeys.clone();
+			other.slots = this.slots.clone();
+			other.pieces = this.pieces.clone();
+			other.pieceCounts = this.pieceCounts.clone();
+			other.colorSlots = this.colorSlots.clone();
+			other.colorCounts = this.colorCounts.clone();
+			other.colorKeys = new int[this.colorKeys.length][];
+			for (int i = 0; i < colorKeys.length; i++)
+				if (this.colorKeys[i] != null)
+					other.colorKeys[i] = this.colorKeys[i].clone();
+			other.pieceKeys = new int[this.pieceKeys.length][];
+			for (int i = 0; i < numPieces; i++)
+				other.pieceKeys[i] = this.pieceKeys[i].clone();
 			return other;
 		}
 		catch (CloneNotSupportedException x)
@@ -273,12 +607,15 @@ public final class Board implements Cloneable, Serializable
 	@Override
 	public String toString()
 	{
-		StringBuilder builder = new StringBuilder("Board[" + coordinates.size() + " coordinates, " + fields.size() + " occupied: ");
-		for (Map.Entry<Piece, Set<Coordinate>> entry : pieceCoordinates.entrySet())
+		StringBuilder builder = new StringBuilder("Board[" + numCoordinates + " coordinates, " + numOccupied + " occupied: ");
+		for (int i = 0; i < numPieces; i++)
 		{
-			builder.append(entry.getKey() + " on ");
-			for (Coordinate c : entry.getValue())
-				builder.append(c + ",");
+			if (pieceCounts[i] == 0)
+				continue;
+
+			builder.append(pieces[i] + " on ");
+			for (int j = 0; j < pieceCounts[i]; j++)
+				builder.append(coordinates[pieceKeys[i][j]] + ",");
 			builder.setLength(builder.length() - 1);
 			builder.append("; ");
 		}
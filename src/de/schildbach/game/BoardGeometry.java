@@ -17,8 +17,6 @@
 
 package de.schildbach.game;
 
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -36,21 +34,20 @@ import org.apache.commons.logging.LogFactory;
  * <li>the geometry knows about the notation of their coordinates</li>
  * <li>board geometries also serve as factories for their dedicated coordinates (allowing to share coordinate instances
  * between all games with the same geometry)</li>
+ * <li>board geometries and their coordinates are immutable after construction and can be shared between threads</li>
  * </ul>
  * 
  * @author Andreas Schildbach
  */
 public abstract class BoardGeometry
 {
-	public static int instanceCount;
-
 	protected static final Log LOG = LogFactory.getLog(BoardGeometry.class);
 
 	private final Coordinate[] coordinates;
 
 	protected BoardGeometry(int numCoordinates)
 	{
-		instanceCount++;
+		Instrumentation.increment(Instrumentation.Counter.BOARD_GEOMETRY);
 		coordinates = new Coordinate[numCoordinates];
 	}
 
@@ -59,6 +56,7 @@ public abstract class BoardGeometry
 	protected final void putCoordinate(int key, Coordinate coordinate)
 	{
 		coordinateNotations.put(coordinate.getNotation(), coordinate);
+		coordinate.setKey(key);
 		coordinates[key] = coordinate;
 	}
 
@@ -67,11 +65,19 @@ public abstract class BoardGeometry
 		return coordinates[key];
 	}
 
+	/**
+	 * @return number of coordinate keys, including keys that are not used by a coordinate
+	 */
+	public final int getNumCoordinates()
+	{
+		return coordinates.length;
+	}
+
 	// interface:
 
 	public final Board newBoard()
 	{
-		return new Board(new HashSet<Coordinate>(Arrays.asList(coordinates)));
+		return new Board(coordinates);
 	}
 
 	public final Iterator<Coordinate> coordinateIterator()
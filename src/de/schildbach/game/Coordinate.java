@@ -26,18 +26,13 @@ import java.io.Serializable;
  */
 public abstract class Coordinate implements Serializable
 {
-	public static int instanceCount;
-
-	private String notation;
-
-	private Coordinate()
-	{
-		instanceCount++;
-	}
+	private final String notation;
+	/** assigned while the geometry is constructed, and published along with it */
+	private int key = -1;
 
 	protected Coordinate(String notation)
 	{
-		this();
+		Instrumentation.increment(Instrumentation.Counter.COORDINATE);
 		this.notation = notation;
 	}
 
@@ -46,6 +41,23 @@ public abstract class Coordinate implements Serializable
 		return notation;
 	}
 
+	/**
+	 * Gets the key this coordinate has been registered under by its geometry. Keys are dense and can be used to index
+	 * arrays of the size of the geometry.
+	 * 
+	 * @return key of coordinate, or -1 if not registered
+	 */
+	public final int getKey()
+	{
+		return key;
+	}
+
+	final void setKey(int key)
+	{
+		assert this.key == -1 || this.key == key : "key already set: " + this.key;
+		this.key = key;
+	}
+
 	@Override
 	public final String toString()
 	{
@@ -17,19 +17,42 @@
 
 package de.schildbach.game;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 
 /**
  * Mutable container for moves and their corresponsing positions, representing a game (history).
  * 
+ * Moves are applied in place to a working position, and undone via their micro operations. Positions are snapshotted
+ * only every n-th move (the checkpoint interval) or when requested, all other positions are rebuilt on demand by
+ * replaying the moves from the nearest snapshot.
+ * 
  * @author Andreas Schildbach
  */
 public final class Game implements Serializable
 {
+	private static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+	private static final int REBUILT_CACHE_SIZE = 8;
+
 	private GamePosition initialPosition;
-	private List<Entry> history = new LinkedList<Entry>();
+	private transient List<Entry> history = new ArrayList<Entry>();
+	private transient GameRules rules;
+	private transient int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+	/** snapshot of the actual position, or null if it has not been requested since the last move */
+	private transient GamePosition actualPosition;
+	/** mutable actual position moves are applied to, or null if not yet needed */
+	private transient GamePosition workingPosition;
+	/** recently rebuilt positions, by move index */
+	private transient Map<Integer, GamePosition> rebuilt;
+	/** Zobrist keys of the boards of all positions, including the initial one; rebuilt lazily */
+	private transient LongMultiset boardKeys;
 
 	/** constructor just for serialization */
 	protected Game()
@@ -39,7 +62,9 @@ public final class Game implements Serializable
 	/** modifications should go through GameRules */
 	protected Game(GameRules rules, GamePosition initialPosition)
 	{
+		this.rules = rules;
 		this.initialPosition = initialPosition;
+		this.actualPosition = initialPosition;
 	}
 
 	public GamePosition getInitialPosition()
@@ -47,12 +72,24 @@ public final class Game implements Serializable
 		return initialPosition;
 	}
 
+	/**
+	 * @return snapshot of the actual position; it may not be altered
+	 */
 	public GamePosition getActualPosition()
 	{
-		if (isEmpty())
-			return initialPosition;
-		else
-			return lastEntry().position;
+		if (actualPosition == null)
+			actualPosition = clonePosition(workingPosition);
+
+		return actualPosition;
+	}
+
+	/**
+	 * @return actual position without taking a snapshot; it may not be altered and is only valid until the next
+	 *         modification
+	 */
+	protected GamePosition peekActualPosition()
+	{
+		return actualPosition != null ? actualPosition : workingPosition;
 	}
 
 	public boolean isEmpty()
@@ -65,10 +102,78 @@ public final class Game implements Serializable
 		return history.size();
 	}
 
-	/** modifications should go through GameRules */
-	protected void addMove(GameMove move, GamePosition position)
+	public int getCheckpointInterval()
+	{
+		return checkpointInterval;
+	}
+
+	/**
+	 * Snapshot only every n-th position of the history. An interval of 1 keeps all positions.
+	 */
+	public void setCheckpointInterval(int checkpointInterval)
+	{
+		if (checkpointInterval < 1)
+			throw new IllegalArgumentException("interval must be positive: " + checkpointInterval);
+		if (checkpointInterval > 1 && rules == null)
+			throw new IllegalStateException("cannot rebuild positions without rules");
+
+		// rebuild missing checkpoints first, while all others are still available for replay
+		int size = history.size();
+		for (int i = 0; i < size; i++)
+		{
+			Entry entry = history.get(i);
+			if (entry.position == null && isCheckpoint(i, checkpointInterval))
+				entry.position = getPosition(i);
+		}
+
+		this.checkpointInterval = checkpointInterval;
+
+		for (int i = 0; i < size; i++)
+			if (!isCheckpoint(i, checkpointInterval))
+				history.get(i).position = null;
+	}
+
+	private static boolean isCheckpoint(int index, int checkpointInterval)
+	{
+		return (index + 1) % checkpointInterval == 0;
+	}
+
+	/**
+	 * Returns the working position, which the caller is about to apply the next move to. Before that, the actual
+	 * position is snapshotted if it is a checkpoint.
+	 * 
+	 * modifications should go through GameRules
+	 */
+	protected GamePosition workingPosition()
+	{
+		int size = history.size();
+		if (size > 0)
+		{
+			Entry last = history.get(size - 1);
+			if (last.position == null && isCheckpoint(size - 1, checkpointInterval))
+				last.position = getActualPosition();
+			else if (actualPosition != null && rebuilt != null)
+				rebuilt.put(size - 1, actualPosition);
+		}
+
+		if (workingPosition == null)
+			workingPosition = clonePosition(actualPosition);
+		actualPosition = null;
+
+		return workingPosition;
+	}
+
+	/**
+	 * Records a move that has already been applied to the working position.
+	 * 
+	 * modifications should go through GameRules
+	 */
+	protected void addMove(GameMove move, List<MicroOperation> ops)
 	{
-		history.add(new Entry(move, position));
+		Entry entry = new Entry(move, ops, workingPosition.getBoard().getZobristKey());
+		history.add(entry);
+		if (boardKeys != null)
+			boardKeys.add(entry.boardKey);
 	}
 
 	public GameMove getMove(int index)
@@ -76,15 +181,144 @@ public final class Game implements Serializable
 		return history.get(index).move;
 	}
 
+	/**
+	 * @return position after the move with the given index; it may not be altered
+	 */
 	public GamePosition getPosition(int index)
 	{
-		return history.get(index).position;
+		if (index == history.size() - 1)
+			return getActualPosition();
+		else
+			return rebuild(index);
 	}
 
-	/** modifications should go through GameRules */
+	private GamePosition rebuild(int index)
+	{
+		Entry entry = history.get(index);
+		if (entry.position != null)
+			return entry.position;
+
+		if (rebuilt == null)
+		{
+			rebuilt = new LinkedHashMap<Integer, GamePosition>(REBUILT_CACHE_SIZE * 2, 0.75f, true)
+			{
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, GamePosition> eldest)
+				{
+					return size() > REBUILT_CACHE_SIZE;
+				}
+			};
+		}
+
+		GamePosition position = rebuilt.get(index);
+		if (position != null)
+			return position;
+
+		// find nearest position to replay from
+		GamePosition base = null;
+		int from = index - 1;
+		for (; from >= 0; from--)
+		{
+			base = history.get(from).position;
+			if (base == null)
+				base = rebuilt.get(from);
+			if (base != null)
+				break;
+		}
+		if (base == null)
+			base = initialPosition;
+
+		position = clonePosition(base);
+		Board initialBoard = initialPosition.getBoard();
+		for (int i = from + 1; i <= index; i++)
+			rules.doOperations(rules.disassembleMove(history.get(i).move, position, initialBoard), position);
+
+		rebuilt.put(index, position);
+		return position;
+	}
+
+	private GamePosition clonePosition(GamePosition position)
+	{
+		GameRulesListener listener = GameRules.getListener();
+		if (listener != null && rules != null)
+			listener.positionCloned(rules);
+
+		return (GamePosition) position.clone();
+	}
+
+	/**
+	 * Removes the last move, undoing its operations on the working position.
+	 * 
+	 * modifications should go through GameRules
+	 */
 	protected void removeLastMove()
 	{
-		history.remove(history.size() - 1);
+		int size = history.size();
+		Entry entry = history.remove(size - 1);
+		if (rebuilt != null)
+			rebuilt.remove(size - 1);
+		if (boardKeys != null)
+			boardKeys.remove(entry.boardKey);
+
+		if (workingPosition != null && entry.ops != null)
+		{
+			for (ListIterator<MicroOperation> i = entry.ops.listIterator(entry.ops.size()); i.hasPrevious();)
+				i.previous().undoOperation(workingPosition);
+
+			if (size == 1)
+				actualPosition = initialPosition;
+			else if (history.get(size - 2).position != null)
+				actualPosition = history.get(size - 2).position;
+			else if (rebuilt != null)
+				actualPosition = rebuilt.get(size - 2);
+			else
+				actualPosition = null;
+		}
+		else
+		{
+			workingPosition = null;
+			actualPosition = size == 1 ? initialPosition : rebuild(size - 2);
+		}
+	}
+
+	/**
+	 * Counts the positions of this game, including the initial position, that contain the given board. Boards that
+	 * cannot occur are rejected by their Zobrist key without looking at the history.
+	 */
+	public int countBoard(Board board)
+	{
+		return countBoard(board, 1);
+	}
+
+	/**
+	 * Like {@link #countBoard(Board)}, but returns 0 without comparing any boards if the board could not possibly have
+	 * occurred at least <code>threshold</code> times.
+	 */
+	public int countBoard(Board board, int threshold)
+	{
+		long key = board.getZobristKey();
+		if (boardKeys().count(key) < threshold)
+			return 0;
+
+		int count = board.equals(initialPosition.getBoard()) ? 1 : 0;
+		int size = history.size();
+		for (int i = 0; i < size; i++)
+			if (history.get(i).boardKey == key && board.equals(getPosition(i).getBoard()))
+				count++;
+		return count;
+	}
+
+	private LongMultiset boardKeys()
+	{
+		if (boardKeys == null)
+		{
+			boardKeys = new LongMultiset();
+			boardKeys.add(initialPosition.getBoard().getZobristKey());
+			for (Entry entry : history)
+				boardKeys.add(entry.boardKey);
+		}
+
+		return boardKeys;
 	}
 
 	public GameMove getLastMove()
@@ -148,15 +382,52 @@ public final class Game implements Serializable
 		return this.getClass().getName() + "[" + history.size() + " moves]";
 	}
 
-	private static class Entry implements Serializable
+	/**
+	 * Rules are not serialized, so all positions are written and the copy keeps a position for every move.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		int size = history.size();
+		out.writeInt(size);
+		for (int i = 0; i < size; i++)
+		{
+			out.writeObject(history.get(i).move);
+			out.writeObject(getPosition(i));
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		int size = in.readInt();
+		history = new ArrayList<Entry>(size);
+		for (int i = 0; i < size; i++)
+		{
+			GameMove move = (GameMove) in.readObject();
+			GamePosition position = (GamePosition) in.readObject();
+			Entry entry = new Entry(move, null, position.getBoard().getZobristKey());
+			entry.position = position;
+			history.add(entry);
+		}
+		actualPosition = size > 0 ? history.get(size - 1).position : initialPosition;
+		checkpointInterval = 1;
+	}
+
+	private static class Entry
 	{
 		private GameMove move;
+		/** needed for undo, not available after deserialization */
+		private List<MicroOperation> ops;
+		/** snapshot, or null if not a checkpoint */
 		private GamePosition position;
+		private long boardKey;
 
-		public Entry(GameMove move, GamePosition position)
+		public Entry(GameMove move, List<MicroOperation> ops, long boardKey)
 		{
 			this.move = move;
-			this.position = position;
+			this.ops = ops;
+			this.boardKey = boardKey;
 		}
 
 		@Override
@@ -169,7 +440,10 @@ public final class Game implements Serializable
 			if (!this.move.equals(other.move))
 				return false;
 
-			if (!this.position.equals(other.position))
+			if (this.boardKey != other.boardKey)
+				return false;
+
+			if (this.position != null && other.position != null && !this.position.equals(other.position))
 				return false;
 
 			return true;
@@ -178,7 +452,7 @@ public final class Game implements Serializable
 		@Override
 		public int hashCode()
 		{
-			return move.hashCode() + 37 * position.hashCode();
+			return move.hashCode() + 37 * Zobrist.fold(boardKey);
 		}
 	}
 }
@@ -26,13 +26,11 @@ import java.io.Serializable;
  */
 public abstract class GameMove implements Serializable
 {
-	public static int instanceCount;
-
 	/**
 	 * Default constructor, needed for serialization.
 	 */
 	protected GameMove()
 	{
-		instanceCount++;
+		Instrumentation.increment(Instrumentation.Counter.GAME_MOVE);
 	}
 }
@@ -31,6 +31,13 @@ public abstract class GamePosition implements Cloneable, Serializable
 	private Board board;
 	private int fullmoveNumber;
 	private int activePlayerIndex;
+	private long zobristKey;
+	/** incremented on every modification, together with the one of the board it invalidates the cached status */
+	private transient long modCount;
+	private transient GameStatus status;
+	private transient GameRules statusRules;
+	private transient Board statusInitialBoard;
+	private transient long statusModCount;
 
 	protected GamePosition(Board board)
 	{
@@ -50,6 +57,7 @@ public abstract class GamePosition implements Cloneable, Serializable
 	public void setFullmoveNumber(int fullmoveNumber)
 	{
 		this.fullmoveNumber = fullmoveNumber;
+		modCount++;
 	}
 
 	public int getActivePlayerIndex()
@@ -59,7 +67,59 @@ public abstract class GamePosition implements Cloneable, Serializable
 
 	public void setActivePlayerIndex(int activePlayerIndex)
 	{
+		this.zobristKey ^= Zobrist.activePlayer(this.activePlayerIndex) ^ Zobrist.activePlayer(activePlayerIndex);
 		this.activePlayerIndex = activePlayerIndex;
+		modCount++;
+	}
+
+	/**
+	 * Gets the Zobrist key of the position, combining the key of the board with the keys of the position state that
+	 * is relevant for repetition, like the active player. Counters like the fullmove number are not part of the key.
+	 * The key is maintained incrementally by the mutators, so it follows all operations and their undo.
+	 * 
+	 * @return 64 bit key
+	 */
+	public final long getZobristKey()
+	{
+		return board.getZobristKey() ^ zobristKey;
+	}
+
+	/**
+	 * Toggles a key in or out of the Zobrist key of the position. Subclasses call this from their mutators.
+	 */
+	protected final void toggleZobristKey(long key)
+	{
+		this.zobristKey ^= key;
+		modCount++;
+	}
+
+	/**
+	 * Records a modification of the position state. Subclasses call this from their mutators that do not toggle the
+	 * Zobrist key, so the cached status is invalidated.
+	 */
+	protected final void modified()
+	{
+		modCount++;
+	}
+
+	/**
+	 * @return status cached for the given rules and initial board, or null if there is none or the position has been
+	 *         modified since
+	 */
+	GameStatus cachedStatus(GameRules rules, Board initialBoard)
+	{
+		if (status != null && statusRules == rules && statusInitialBoard == initialBoard && statusModCount == modCount + board.getModCount())
+			return status;
+		else
+			return null;
+	}
+
+	void cacheStatus(GameRules rules, Board initialBoard, GameStatus status)
+	{
+		this.status = status;
+		this.statusRules = rules;
+		this.statusInitialBoard = initialBoard;
+		this.statusModCount = modCount + board.getModCount();
 	}
 
 	@Override
@@ -84,12 +144,9 @@ public abstract class GamePosition implements Cloneable, Serializable
 	@Override
 	public int hashCode()
 	{
-		int hashCode = 0;
-		hashCode += board.hashCode();
+		int hashCode = Zobrist.fold(getZobristKey());
 		hashCode *= 37;
 		hashCode += fullmoveNumber;
-		hashCode *= 37;
-		hashCode += activePlayerIndex;
 		return hashCode;
 	}
 
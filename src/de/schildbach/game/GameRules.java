@@ -18,6 +18,7 @@
 package de.schildbach.game;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
@@ -38,28 +39,24 @@ import de.schildbach.game.exception.ParseException;
  * <li>knows about its base rules and variants</li>
  * <li>piece specific rules are delegated to the piece</li>
  * <li>knows about the usual initial position</li>
+ * <li>immutable after construction, so one instance can serve any number of games and threads; positions and games
+ * are not thread safe though</li>
  * </ul>
  * 
  * @author Andreas Schildbach
  */
 public abstract class GameRules
 {
-	public static int instanceCount;
-
 	protected static final Log LOG = LogFactory.getLog(GameRules.class);
 
-	transient private BoardGeometry boardGeometry;
-	transient private PieceSet pieceSet;
+	private static volatile GameRulesListener listener;
 
-	/** constructor just for serialization */
-	protected GameRules()
-	{
-		instanceCount++;
-	}
+	private final BoardGeometry boardGeometry;
+	private final PieceSet pieceSet;
 
 	protected GameRules(BoardGeometry boardGeometry, PieceSet pieceSet)
 	{
-		this();
+		Instrumentation.increment(Instrumentation.Counter.GAME_RULES);
 
 		if (boardGeometry == null)
 			throw new IllegalArgumentException("boardGeometry must not be null");
@@ -98,6 +95,19 @@ public abstract class GameRules
 	}
 
 	public final Game newGame(String initialBoardNotation, String historyNotation, Locale locale)
+	{
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return doNewGame(initialBoardNotation, historyNotation, locale);
+
+		long start = System.nanoTime();
+		Game game = doNewGame(initialBoardNotation, historyNotation, locale);
+		listener.operationCompleted(this, GameRulesListener.Operation.NEW_GAME, game.peekActualPosition(), System.nanoTime() - start, game
+				.getSize());
+		return game;
+	}
+
+	private Game doNewGame(String initialBoardNotation, String historyNotation, Locale locale)
 	{
 		Game game = newGame(initialBoardNotation);
 
@@ -110,9 +120,33 @@ public abstract class GameRules
 
 	public abstract GamePosition initialPositionFromBoard(Board board);
 
+	/**
+	 * Installs a listener for the timings of all rules, or removes it if null. Without a listener, instrumentation
+	 * costs a single branch per call.
+	 */
+	public static void setListener(GameRulesListener listener)
+	{
+		GameRules.listener = listener;
+	}
+
+	public static GameRulesListener getListener()
+	{
+		return listener;
+	}
+
 	public final GameMove parseMove(String moveString, Locale locale, Game game) throws ParseException
 	{
-		return parseMove(moveString, locale, game.getActualPosition(), game.getInitialPosition().getBoard());
+		GamePosition position = game.peekActualPosition();
+		Board initialBoard = game.getInitialPosition().getBoard();
+
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return parseMove(moveString, locale, position, initialBoard);
+
+		long start = System.nanoTime();
+		GameMove move = parseMove(moveString, locale, position, initialBoard);
+		listener.operationCompleted(this, GameRulesListener.Operation.PARSE_MOVE, position, System.nanoTime() - start, 0);
+		return move;
 	}
 
 	/**
@@ -134,7 +168,17 @@ public abstract class GameRules
 
 	public final Collection<? extends GameMove> allowedMoves(Game game)
 	{
-		return allowedMoves(game.getActualPosition(), game.getInitialPosition().getBoard());
+		GamePosition position = game.peekActualPosition();
+		Board initialBoard = game.getInitialPosition().getBoard();
+
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return allowedMoves(position, initialBoard);
+
+		long start = System.nanoTime();
+		Collection<? extends GameMove> moves = allowedMoves(position, initialBoard);
+		listener.operationCompleted(this, GameRulesListener.Operation.ALLOWED_MOVES, position, System.nanoTime() - start, moves.size());
+		return moves;
 	}
 
 	/**
@@ -152,6 +196,33 @@ public abstract class GameRules
 	 */
 	public abstract Collection<? extends GameMove> allowedMoves(GamePosition position, Board initialBoard);
 
+	/**
+	 * Iterates the moves allowed in a given game position lazily, so callers that stop early do not pay for generating
+	 * all of them. The position may not be modified while iterating, and the order of the moves is unspecified. By
+	 * default, this iterates over {@link #allowedMoves(GamePosition, Board)}.
+	 */
+	public Iterator<? extends GameMove> legalMoves(GamePosition position, Board initialBoard)
+	{
+		return allowedMoves(position, initialBoard).iterator();
+	}
+
+	public final boolean hasLegalMove(Game game)
+	{
+		return hasLegalMove(game.peekActualPosition(), game.getInitialPosition().getBoard());
+	}
+
+	/**
+	 * Determines if there is at least one move allowed in a given game position, stopping at the first one found.
+	 */
+	public boolean hasLegalMove(GamePosition position, Board initialBoard)
+	{
+		GameStatus status = cachedStatus(position, initialBoard);
+		if (status != null)
+			return status.getLegalMoveCount() > 0;
+
+		return legalMoves(position, initialBoard).hasNext();
+	}
+
 	public final String executeMoves(Game game, String moveSequence, Locale locale)
 	{
 		if (moveSequence == null)
@@ -170,8 +241,9 @@ public abstract class GameRules
 						int fullmoveNumber = Integer.parseInt(moves[i].substring(0, moves[i].indexOf(".")));
 
 						// verify move number
-						if (fullmoveNumber != game.getActualPosition().getFullmoveNumber())
-							throw new ParseException(moves[i], "expecting fullmove number " + game.getActualPosition().getFullmoveNumber());
+						int expectedFullmoveNumber = game.peekActualPosition().getFullmoveNumber();
+						if (fullmoveNumber != expectedFullmoveNumber)
+							throw new ParseException(moves[i], "expecting fullmove number " + expectedFullmoveNumber);
 					}
 					else
 					{
@@ -179,7 +251,7 @@ public abstract class GameRules
 						executeMove(game, move);
 
 						if (LOG.isDebugEnabled())
-							LOG.debug(moves[i] + " => " + game.getActualPosition());
+							LOG.debug(moves[i] + " => " + game.peekActualPosition());
 					}
 				}
 
@@ -205,6 +277,19 @@ public abstract class GameRules
 	}
 
 	public final Game unmarshal(String initialBoardNotation, String notation)
+	{
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return doUnmarshal(initialBoardNotation, notation);
+
+		long start = System.nanoTime();
+		Game game = doUnmarshal(initialBoardNotation, notation);
+		listener.operationCompleted(this, GameRulesListener.Operation.UNMARSHAL, game.peekActualPosition(), System.nanoTime() - start, game
+				.getSize());
+		return game;
+	}
+
+	private Game doUnmarshal(String initialBoardNotation, String notation)
 	{
 		Game game = newGame(initialBoardNotation);
 
@@ -217,11 +302,27 @@ public abstract class GameRules
 
 	public final void executeMove(Game game, GameMove move)
 	{
-		GamePosition position = (GamePosition) game.getActualPosition().clone();
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+		{
+			doExecuteMove(game, move);
+			return;
+		}
+
+		long start = System.nanoTime();
+		GamePosition position = doExecuteMove(game, move);
+		listener.operationCompleted(this, GameRulesListener.Operation.EXECUTE_MOVE, position, System.nanoTime() - start, 0);
+	}
+
+	private GamePosition doExecuteMove(Game game, GameMove move)
+	{
+		// apply in place, the game snapshots positions only when needed
+		GamePosition position = game.workingPosition();
 		List<MicroOperation> ops = disassembleMove(move, position, game.getInitialPosition().getBoard());
 		doOperations(ops, position);
 
-		game.addMove(move, position);
+		game.addMove(move, ops);
+		return position;
 	}
 
 	public final void undoLastMove(Game game)
@@ -298,6 +399,19 @@ public abstract class GameRules
 	public abstract Set<String> clickables(GameMove move);
 
 	public final String formatGame(Game game, int fullMoveNumber, int firstPlayerIndex, Locale locale)
+	{
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return doFormatGame(game, fullMoveNumber, firstPlayerIndex, locale);
+
+		long start = System.nanoTime();
+		String notation = doFormatGame(game, fullMoveNumber, firstPlayerIndex, locale);
+		listener.operationCompleted(this, GameRulesListener.Operation.FORMAT_GAME, game.peekActualPosition(), System.nanoTime() - start, game
+				.getSize());
+		return notation;
+	}
+
+	private String doFormatGame(Game game, int fullMoveNumber, int firstPlayerIndex, Locale locale)
 	{
 		StringBuilder notation = new StringBuilder();
 		FormatGameArrayElement[] notationArray = formatGameArray(game, fullMoveNumber, firstPlayerIndex, locale);
@@ -320,6 +434,19 @@ public abstract class GameRules
 	}
 
 	public final FormatGameArrayElement[] formatGameArray(Game game, int fullmoveNumber, int firstPlayerIndex, Locale locale)
+	{
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return doFormatGameArray(game, fullmoveNumber, firstPlayerIndex, locale);
+
+		long start = System.nanoTime();
+		FormatGameArrayElement[] array = doFormatGameArray(game, fullmoveNumber, firstPlayerIndex, locale);
+		listener.operationCompleted(this, GameRulesListener.Operation.FORMAT_GAME_ARRAY, game.peekActualPosition(), System.nanoTime()
+				- start, 0);
+		return array;
+	}
+
+	private FormatGameArrayElement[] doFormatGameArray(Game game, int fullmoveNumber, int firstPlayerIndex, Locale locale)
 	{
 		final int NUM_PLAYERS = 2;
 
@@ -418,18 +545,103 @@ public abstract class GameRules
 
 	public final boolean isFinished(Game game)
 	{
-		return isFinished(game.getActualPosition(), game.getInitialPosition().getBoard());
+		GamePosition position = game.peekActualPosition();
+		Board initialBoard = game.getInitialPosition().getBoard();
+
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return isFinished(position, initialBoard);
+
+		long start = System.nanoTime();
+		boolean finished = isFinished(position, initialBoard);
+		listener.operationCompleted(this, GameRulesListener.Operation.IS_FINISHED, position, System.nanoTime() - start, 0);
+		return finished;
 	}
 
 	public abstract boolean isFinished(GamePosition position, Board initialBoard);
 
 	public final float[] points(Game game)
 	{
-		return points(game.getActualPosition(), game.getInitialPosition().getBoard());
+		return points(game.peekActualPosition(), game.getInitialPosition().getBoard());
 	}
 
 	public abstract float[] points(GamePosition position, Board initialBoard);
 
+	/**
+	 * Evaluates the actual position of a game, see {@link #status(GamePosition, Board)}.
+	 */
+	public final GameStatus status(Game game)
+	{
+		GamePosition position = game.peekActualPosition();
+		Board initialBoard = game.getInitialPosition().getBoard();
+
+		GameRulesListener listener = GameRules.listener;
+		if (listener == null)
+			return status(position, initialBoard);
+
+		long start = System.nanoTime();
+		GameStatus status = status(position, initialBoard);
+		listener.operationCompleted(this, GameRulesListener.Operation.STATUS, position, System.nanoTime() - start, 0);
+		return status;
+	}
+
+	/**
+	 * Evaluates check, legal moves, end of game and points of a position at once. The result is cached on the position
+	 * until it is modified, so asking again is cheap.
+	 */
+	public final GameStatus status(GamePosition position, Board initialBoard)
+	{
+		GameStatus status = cachedStatus(position, initialBoard);
+		if (status == null)
+		{
+			status = computeStatus(position, initialBoard);
+			position.cacheStatus(this, initialBoard, status);
+		}
+		return status;
+	}
+
+	/**
+	 * @return status computed earlier by {@link #status(GamePosition, Board)}, or null if the position has been
+	 *         modified since
+	 */
+	protected final GameStatus cachedStatus(GamePosition position, Board initialBoard)
+	{
+		return position.cachedStatus(this, initialBoard);
+	}
+
+	/**
+	 * Computes the status of a position. By default, this asks {@link #allowedMoves(GamePosition, Board)},
+	 * {@link #isFinished(GamePosition, Board)} and {@link #points(GamePosition, Board)}, and the player with the most
+	 * points wins. Rules that implement the latter two via {@link #status(GamePosition, Board)} must override this
+	 * with a single pass.
+	 */
+	protected GameStatus computeStatus(GamePosition position, Board initialBoard)
+	{
+		int legalMoveCount = allowedMoves(position, initialBoard).size();
+		boolean finished = isFinished(position, initialBoard);
+		float[] points = points(position, initialBoard);
+
+		int winnerIndex = GameStatus.NO_WINNER;
+		if (finished)
+		{
+			float max = Float.NEGATIVE_INFINITY;
+			for (int i = 0; i < points.length; i++)
+			{
+				if (points[i] > max)
+				{
+					max = points[i];
+					winnerIndex = i;
+				}
+				else if (points[i] == max)
+				{
+					winnerIndex = GameStatus.NO_WINNER;
+				}
+			}
+		}
+
+		return new GameStatus(false, legalMoveCount, finished, winnerIndex, points);
+	}
+
 	public final float[] pointsForDraw()
 	{
 		return new float[] { 0.5f, 0.5f };
@@ -444,18 +656,21 @@ public abstract class GameRules
 
 	public boolean canDrawBeClaimed(Game game)
 	{
-		return countContainsBoard(game, game.getActualPosition().getBoard()) >= 3;
+		// boards are only compared if their keys occurred at least three times
+		return game.countBoard(game.peekActualPosition().getBoard(), 3) >= 3;
+	}
+
+	/**
+	 * @return actual position of the game without taking a snapshot; it may not be altered and is only valid until the
+	 *         next modification
+	 */
+	protected static GamePosition peekActualPosition(Game game)
+	{
+		return game.peekActualPosition();
 	}
 
 	protected int countContainsBoard(Game game, Board board)
 	{
-		int count = board.equals(game.getInitialPosition().getBoard()) ? 1 : 0;
-		int size = game.getSize();
-		for (int i = 0; i < size; i++)
-		{
-			if (board.equals(game.getPosition(i).getBoard()))
-				count++;
-		}
-		return count;
+		return game.countBoard(board);
 	}
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+/**
+ * Receives timings of the hot paths of all game rules, see {@link GameRules#setListener(GameRulesListener)}.
+ * Implementations are called synchronously on the thread doing the work, possibly from many threads at once, so they
+ * must be thread safe and fast.
+ * 
+ * @author Andreas Schildbach
+ */
+public interface GameRulesListener
+{
+	public enum Operation
+	{
+		ALLOWED_MOVES, PARSE_MOVE, EXECUTE_MOVE, FORMAT_GAME_ARRAY, CHECK_STATE, IS_FINISHED, STATUS,
+		/** operations on whole games */
+		NEW_GAME, UNMARSHAL, FORMAT_GAME
+	}
+
+	/**
+	 * Called after an operation completed normally.
+	 * 
+	 * @param position
+	 *            position the operation was done on (for {@link Operation#EXECUTE_MOVE} and operations on whole games
+	 *            the resulting position); it may not be altered or retained
+	 * @param nanos
+	 *            duration of the operation
+	 * @param moves
+	 *            number of moves generated, for operations on whole games the number of moves of the game, otherwise 0
+	 */
+	void operationCompleted(GameRules rules, Operation operation, GamePosition position, long nanos, int moves);
+
+	/**
+	 * Called after a game snapshotted or rebuilt a position.
+	 */
+	void positionCloned(GameRules rules);
+}
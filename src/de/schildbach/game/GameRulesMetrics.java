@@ -0,0 +1,186 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Listener collecting call counts, latency histograms, generated moves and cloned positions per class of game rules.
+ * Install via {@link GameRules#setListener(GameRulesListener)}.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class GameRulesMetrics implements GameRulesListener
+{
+	/** bucket i of a histogram counts durations of less than 2^(i+1) nanoseconds, the last bucket all longer ones */
+	public static final int NUM_BUCKETS = 40;
+
+	private final ConcurrentMap<Class<? extends GameRules>, RulesStats> stats = new ConcurrentHashMap<Class<? extends GameRules>, RulesStats>();
+
+	public void operationCompleted(GameRules rules, Operation operation, GamePosition position, long nanos, int moves)
+	{
+		OperationStats operationStats = stats(rules.getClass()).operations[operation.ordinal()];
+		operationStats.calls.incrementAndGet();
+		operationStats.totalNanos.addAndGet(nanos);
+		operationStats.histogram.incrementAndGet(bucket(nanos));
+		if (moves > 0)
+			operationStats.moves.addAndGet(moves);
+
+		long max;
+		while ((max = operationStats.maxNanos.get()) < nanos)
+			if (operationStats.maxNanos.compareAndSet(max, nanos))
+				break;
+	}
+
+	public void positionCloned(GameRules rules)
+	{
+		stats(rules.getClass()).positionsCloned.incrementAndGet();
+	}
+
+	private RulesStats stats(Class<? extends GameRules> rulesClass)
+	{
+		RulesStats rulesStats = stats.get(rulesClass);
+		if (rulesStats == null)
+		{
+			RulesStats newStats = new RulesStats();
+			rulesStats = stats.putIfAbsent(rulesClass, newStats);
+			if (rulesStats == null)
+				rulesStats = newStats;
+		}
+		return rulesStats;
+	}
+
+	static int bucket(long nanos)
+	{
+		int bucket = 63 - Long.numberOfLeadingZeros(nanos | 1);
+		return Math.min(bucket, NUM_BUCKETS - 1);
+	}
+
+	/**
+	 * @return classes of rules that have been active since creation or the last reset
+	 */
+	public Set<Class<? extends GameRules>> getRulesClasses()
+	{
+		return Collections.unmodifiableSet(stats.keySet());
+	}
+
+	public long getCalls(Class<? extends GameRules> rulesClass, Operation operation)
+	{
+		OperationStats operationStats = operationStats(rulesClass, operation);
+		return operationStats != null ? operationStats.calls.get() : 0;
+	}
+
+	public long getTotalNanos(Class<? extends GameRules> rulesClass, Operation operation)
+	{
+		OperationStats operationStats = operationStats(rulesClass, operation);
+		return operationStats != null ? operationStats.totalNanos.get() : 0;
+	}
+
+	public long getMaxNanos(Class<? extends GameRules> rulesClass, Operation operation)
+	{
+		OperationStats operationStats = operationStats(rulesClass, operation);
+		return operationStats != null ? operationStats.maxNanos.get() : 0;
+	}
+
+	/**
+	 * @return latency histogram, see {@link #NUM_BUCKETS}
+	 */
+	public long[] getHistogram(Class<? extends GameRules> rulesClass, Operation operation)
+	{
+		long[] histogram = new long[NUM_BUCKETS];
+		OperationStats operationStats = operationStats(rulesClass, operation);
+		if (operationStats != null)
+			for (int i = 0; i < NUM_BUCKETS; i++)
+				histogram[i] = operationStats.histogram.get(i);
+		return histogram;
+	}
+
+	public long getMovesGenerated(Class<? extends GameRules> rulesClass)
+	{
+		OperationStats operationStats = operationStats(rulesClass, Operation.ALLOWED_MOVES);
+		return operationStats != null ? operationStats.moves.get() : 0;
+	}
+
+	public long getPositionsCloned(Class<? extends GameRules> rulesClass)
+	{
+		RulesStats rulesStats = stats.get(rulesClass);
+		return rulesStats != null ? rulesStats.positionsCloned.get() : 0;
+	}
+
+	private OperationStats operationStats(Class<? extends GameRules> rulesClass, Operation operation)
+	{
+		RulesStats rulesStats = stats.get(rulesClass);
+		return rulesStats != null ? rulesStats.operations[operation.ordinal()] : null;
+	}
+
+	public void reset()
+	{
+		stats.clear();
+	}
+
+	/**
+	 * @return one line per class of rules and operation, with calls, mean and maximum latency in microseconds
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder str = new StringBuilder();
+		for (Class<? extends GameRules> rulesClass : stats.keySet())
+		{
+			str.append(rulesClass.getSimpleName()).append(": ").append(getPositionsCloned(rulesClass)).append(" positions cloned, ");
+			str.append(getMovesGenerated(rulesClass)).append(" moves generated\n");
+			for (Operation operation : Operation.values())
+			{
+				long calls = getCalls(rulesClass, operation);
+				if (calls > 0)
+				{
+					str.append("  ").append(operation).append(": ").append(calls).append(" calls, ");
+					str.append(getTotalNanos(rulesClass, operation) / calls / 1000).append(" us mean, ");
+					str.append(getMaxNanos(rulesClass, operation) / 1000).append(" us max\n");
+				}
+			}
+		}
+		return str.toString();
+	}
+
+	private static final class RulesStats
+	{
+		private final OperationStats[] operations = new OperationStats[Operation.values().length];
+		private final AtomicLong positionsCloned = new AtomicLong();
+
+		public RulesStats()
+		{
+			for (int i = 0; i < operations.length; i++)
+				operations[i] = new OperationStats();
+		}
+	}
+
+	private static final class OperationStats
+	{
+		private final AtomicLong calls = new AtomicLong();
+		private final AtomicLong totalNanos = new AtomicLong();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLong moves = new AtomicLong();
+		private final AtomicLongArray histogram = new AtomicLongArray(NUM_BUCKETS);
+	}
+}
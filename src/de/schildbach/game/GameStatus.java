@@ -0,0 +1,128 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import java.util.Arrays;
+
+/**
+ * Immutable summary of a position: whether the active player is in check, how many legal moves there are, whether
+ * the game is finished, and who won. Obtained via {@link GameRules#status(Game)}, which computes it in a single pass
+ * and caches it on the position until the position changes.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class GameStatus
+{
+	/** winner index of unfinished or drawn games */
+	public static final int NO_WINNER = -1;
+
+	private final boolean check;
+	private final int legalMoveCount;
+	private final boolean finished;
+	private final int winnerIndex;
+	private final float[] points;
+
+	public GameStatus(boolean check, int legalMoveCount, boolean finished, int winnerIndex, float[] points)
+	{
+		if (legalMoveCount < 0)
+			throw new IllegalArgumentException("negative legal move count: " + legalMoveCount);
+		if (winnerIndex != NO_WINNER && !finished)
+			throw new IllegalArgumentException("winner of unfinished game: " + winnerIndex);
+
+		this.check = check;
+		this.legalMoveCount = legalMoveCount;
+		this.finished = finished;
+		this.winnerIndex = winnerIndex;
+		this.points = points.clone();
+	}
+
+	/**
+	 * @return true if the active player is in check; always false for games without check
+	 */
+	public boolean isCheck()
+	{
+		return check;
+	}
+
+	public int getLegalMoveCount()
+	{
+		return legalMoveCount;
+	}
+
+	public boolean isFinished()
+	{
+		return finished;
+	}
+
+	public boolean isDraw()
+	{
+		return finished && winnerIndex == NO_WINNER;
+	}
+
+	/**
+	 * @return index of the winning player, or {@link #NO_WINNER} if the game is not finished or drawn
+	 */
+	public int getWinnerIndex()
+	{
+		return winnerIndex;
+	}
+
+	/**
+	 * @return points by player index; a copy
+	 */
+	public float[] getPoints()
+	{
+		return points.clone();
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (o == this)
+			return true;
+		if (!(o instanceof GameStatus))
+			return false;
+		GameStatus other = (GameStatus) o;
+
+		return check == other.check && legalMoveCount == other.legalMoveCount && finished == other.finished
+				&& winnerIndex == other.winnerIndex && Arrays.equals(points, other.points);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int hashCode = legalMoveCount;
+		hashCode *= 37;
+		hashCode += winnerIndex;
+		hashCode *= 37;
+		hashCode += Arrays.hashCode(points);
+		return hashCode;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder str = new StringBuilder();
+		str.append(finished ? (winnerIndex == NO_WINNER ? "draw" : "won by " + winnerIndex) : "ongoing");
+		if (check)
+			str.append(", check");
+		str.append(", ").append(legalMoveCount).append(" legal moves");
+		str.append(", points ").append(Arrays.toString(points));
+		return str.toString();
+	}
+}
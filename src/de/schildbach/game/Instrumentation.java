@@ -0,0 +1,112 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counters of instances created by the library, for diagnosing allocation behaviour. Counting is cheap and
+ * safe from any number of threads.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class Instrumentation
+{
+	public enum Counter
+	{
+		GAME_RULES, BOARD_GEOMETRY, BOARD, PIECE_SET, PIECE, COORDINATE, GAME_MOVE
+	}
+
+	private static final StripedCounter[] COUNTERS = new StripedCounter[Counter.values().length];
+
+	static
+	{
+		for (int i = 0; i < COUNTERS.length; i++)
+			COUNTERS[i] = new StripedCounter();
+	}
+
+	static void increment(Counter counter)
+	{
+		COUNTERS[counter.ordinal()].increment();
+	}
+
+	/**
+	 * @return number of instances counted since startup or the last reset; not atomic with respect to concurrent
+	 *         increments
+	 */
+	public static long get(Counter counter)
+	{
+		return COUNTERS[counter.ordinal()].sum();
+	}
+
+	/**
+	 * @return values of all counters
+	 */
+	public static Map<Counter, Long> snapshot()
+	{
+		Map<Counter, Long> snapshot = new EnumMap<Counter, Long>(Counter.class);
+		for (Counter counter : Counter.values())
+			snapshot.put(counter, get(counter));
+		return snapshot;
+	}
+
+	public static void reset()
+	{
+		for (StripedCounter counter : COUNTERS)
+			counter.reset();
+	}
+
+	private Instrumentation()
+	{
+	}
+
+	/**
+	 * Counter spread over several cells, so that threads incrementing it concurrently rarely contend for the same cache
+	 * line. Serves the purpose of java.util.concurrent.atomic.LongAdder, which is not available on Java 6.
+	 */
+	private static final class StripedCounter
+	{
+		private static final int STRIPES = 64;
+		/** longs per cache line, so that each stripe occupies a line of its own */
+		private static final int PADDING = 8;
+
+		private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+		public void increment()
+		{
+			int stripe = (int) (Thread.currentThread().getId() % STRIPES);
+			cells.incrementAndGet(stripe * PADDING);
+		}
+
+		public long sum()
+		{
+			long sum = 0;
+			for (int i = 0; i < STRIPES; i++)
+				sum += cells.get(i * PADDING);
+			return sum;
+		}
+
+		public void reset()
+		{
+			for (int i = 0; i < STRIPES; i++)
+				cells.set(i * PADDING, 0);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Multiset of primitive longs, e.g. Zobrist keys. Implemented as an open addressing hash table with linear probing, so
+ * adding, removing and counting do not allocate.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class LongMultiset implements Cloneable, Serializable
+{
+	private static final int INITIAL_CAPACITY = 16;
+
+	private long[] keys;
+	private int[] counts;
+	private int distinct;
+	private int size;
+
+	public LongMultiset()
+	{
+		keys = new long[INITIAL_CAPACITY];
+		counts = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Adds one occurrence of a key.
+	 */
+	public void add(long key)
+	{
+		int index = indexOf(key);
+		if (counts[index] == 0)
+		{
+			keys[index] = key;
+			distinct++;
+			if (distinct * 2 > keys.length)
+			{
+				counts[index] = 1;
+				size++;
+				rehash(keys.length * 2);
+				return;
+			}
+		}
+		counts[index]++;
+		size++;
+	}
+
+	/**
+	 * Removes one occurrence of a key.
+	 * 
+	 * @return true if the key was contained
+	 */
+	public boolean remove(long key)
+	{
+		int index = indexOf(key);
+		if (counts[index] == 0)
+			return false;
+
+		size--;
+		if (--counts[index] > 0)
+			return true;
+
+		distinct--;
+
+		// close the gap, so probing does not stop early
+		int mask = keys.length - 1;
+		int gap = index;
+		for (int i = (gap + 1) & mask; counts[i] != 0; i = (i + 1) & mask)
+		{
+			int home = hash(keys[i]) & mask;
+			if (((i - home) & mask) >= ((i - gap) & mask))
+			{
+				keys[gap] = keys[i];
+				counts[gap] = counts[i];
+				counts[i] = 0;
+				gap = i;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Counts the occurrences of a key.
+	 */
+	public int count(long key)
+	{
+		return counts[indexOf(key)];
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(counts, 0);
+		distinct = 0;
+		size = 0;
+	}
+
+	private int indexOf(long key)
+	{
+		int mask = keys.length - 1;
+		int index = hash(key) & mask;
+		while (counts[index] != 0 && keys[index] != key)
+			index = (index + 1) & mask;
+		return index;
+	}
+
+	private void rehash(int capacity)
+	{
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new long[capacity];
+		counts = new int[capacity];
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldCounts[i] != 0)
+			{
+				int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				counts[index] = oldCounts[i];
+			}
+		}
+	}
+
+	private static int hash(long key)
+	{
+		long h = key * 0x9e3779b97f4a7c15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	@Override
+	public LongMultiset clone()
+	{
+		try
+		{
+			LongMultiset clone = (LongMultiset) super.clone();
+			clone.keys = this.keys.clone();
+			clone.counts = this.counts.clone();
+			return clone;
+		}
+		catch (CloneNotSupportedException x)
+		{
+			throw new RuntimeException(x);
+		}
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the leaf nodes of the game tree like {@link Perft}, but on several threads. The upper plies are expanded on
+ * the calling thread until there are enough subtrees to keep all threads busy, then each subtree is counted by a
+ * worker on its own copy of the position.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class ParallelPerft
+{
+	/** subtrees per thread to aim for, so that uneven subtrees even out */
+	private static final int SUBTREES_PER_THREAD = 16;
+
+	private final GameRules rules;
+	private final int threads;
+	private final ExecutorService executor;
+
+	public ParallelPerft(GameRules rules, int threads)
+	{
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be positive: " + threads);
+
+		this.rules = rules;
+		this.threads = threads;
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+		{
+			private final AtomicInteger number = new AtomicInteger();
+
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "perft-" + number.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Counts leaf nodes. The position is not altered. The rules must be safe to use from several threads at once.
+	 */
+	public Result perft(GamePosition position, final Board initialBoard, int depth) throws InterruptedException
+	{
+		if (depth < 1)
+			throw new IllegalArgumentException("depth must be positive: " + depth);
+
+		// expand upper plies until there are enough subtrees, but leave at least one ply to the workers
+		List<GamePosition> frontier = Collections.singletonList(position);
+		int ply = 0;
+		while (ply < depth - 1 && frontier.size() < threads * SUBTREES_PER_THREAD)
+		{
+			List<GamePosition> expanded = new ArrayList<GamePosition>();
+			for (GamePosition parent : frontier)
+			{
+				for (GameMove move : rules.allowedMoves(parent, initialBoard))
+				{
+					GamePosition child = (GamePosition) parent.clone();
+					rules.doOperations(rules.disassembleMove(move, child, initialBoard), child);
+					expanded.add(child);
+				}
+			}
+			frontier = expanded;
+			ply++;
+		}
+		if (ply == 0)
+			frontier = Collections.singletonList((GamePosition) position.clone());
+
+		List<Future<Long>> futures = new ArrayList<Future<Long>>(frontier.size());
+		final Map<String, Long> nodesByThread = new TreeMap<String, Long>();
+		final int remainingDepth = depth - ply;
+		for (final GamePosition subtree : frontier)
+		{
+			futures.add(executor.submit(new Callable<Long>()
+			{
+				public Long call()
+				{
+					long nodes = new Perft(rules).perft(subtree, initialBoard, remainingDepth);
+					String thread = Thread.currentThread().getName();
+					synchronized (nodesByThread)
+					{
+						Long threadNodes = nodesByThread.get(thread);
+						nodesByThread.put(thread, threadNodes != null ? threadNodes + nodes : nodes);
+					}
+					return nodes;
+				}
+			}));
+		}
+
+		long nodes = 0;
+		try
+		{
+			for (Future<Long> future : futures)
+				nodes += future.get();
+		}
+		catch (ExecutionException x)
+		{
+			for (Future<Long> future : futures)
+				future.cancel(true);
+
+			Throwable cause = x.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+
+		synchronized (nodesByThread)
+		{
+			return new Result(nodes, frontier.size(), nodesByThread);
+		}
+	}
+
+	/**
+	 * Stops the worker threads. This instance cannot be used afterwards.
+	 */
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	public static final class Result
+	{
+		private final long nodes;
+		private final int subtrees;
+		private final Map<String, Long> nodesByThread;
+
+		private Result(long nodes, int subtrees, Map<String, Long> nodesByThread)
+		{
+			this.nodes = nodes;
+			this.subtrees = subtrees;
+			this.nodesByThread = Collections.unmodifiableMap(new TreeMap<String, Long>(nodesByThread));
+		}
+
+		public long getNodes()
+		{
+			return nodes;
+		}
+
+		/**
+		 * @return number of subtrees the work was split into
+		 */
+		public int getSubtrees()
+		{
+			return subtrees;
+		}
+
+		/**
+		 * @return number of nodes counted, by name of worker thread
+		 */
+		public Map<String, Long> getNodesByThread()
+		{
+			return nodesByThread;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getName() + "[" + nodes + " nodes, " + subtrees + " subtrees, by thread " + nodesByThread + "]";
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import java.lang.reflect.Constructor;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the game tree to a given depth ("perft"), for verifying and measuring move generation. Moves
+ * are taken from {@link GameRules#allowedMoves(GamePosition, Board)} and applied in place, using micro operations.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class Perft
+{
+	private final GameRules rules;
+
+	public Perft(GameRules rules)
+	{
+		this.rules = rules;
+	}
+
+	/**
+	 * Counts leaf nodes. The position is altered while counting, but restored afterwards, so it must not share its
+	 * board with the initial board.
+	 * 
+	 * @return number of nodes at the given depth
+	 */
+	public long perft(GamePosition position, Board initialBoard, int depth)
+	{
+		assert position.getBoard() != initialBoard : "initial board must not be altered";
+
+		if (depth == 0)
+			return 1;
+
+		Collection<? extends GameMove> moves = rules.allowedMoves(position, initialBoard);
+		if (depth == 1)
+			return moves.size();
+
+		long nodes = 0;
+		for (GameMove move : moves)
+		{
+			List<MicroOperation> ops = rules.disassembleMove(move, position, initialBoard);
+			rules.doOperations(ops, position);
+			nodes += perft(position, initialBoard, depth - 1);
+			rules.undoOperations(ops, position);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts leaf nodes per root move. The position is altered while counting, but restored afterwards.
+	 * 
+	 * @return number of nodes at the given depth, by notation of root move
+	 */
+	public Map<String, Long> divide(GamePosition position, Board initialBoard, int depth)
+	{
+		if (depth < 1)
+			throw new IllegalArgumentException("depth must be positive: " + depth);
+		assert position.getBoard() != initialBoard : "initial board must not be altered";
+
+		Map<String, Long> divide = new LinkedHashMap<String, Long>();
+		for (GameMove move : rules.allowedMoves(position, initialBoard))
+		{
+			List<MicroOperation> ops = rules.disassembleMove(move, position, initialBoard);
+			rules.doOperations(ops, position);
+			divide.put(rules.formatMove(move), perft(position, initialBoard, depth - 1));
+			rules.undoOperations(ops, position);
+		}
+		return divide;
+	}
+
+	/**
+	 * Command line interface, printing the divide breakdown (or, if run on several threads, the nodes per thread), the
+	 * total node count and the nodes per second.
+	 * 
+	 * Arguments: optionally <code>-threads</code> followed by the number of threads, class name of the rules,
+	 * optionally followed by a colon and the variant (e.g. <code>de.schildbach.game.chess.ChessRules:SUICIDE</code>),
+	 * depth, optionally a position and an initial board in the notation of the rules.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		int threads = 0;
+		if (args.length >= 2 && args[0].equals("-threads"))
+		{
+			threads = Integer.parseInt(args[1]);
+			String[] remaining = new String[args.length - 2];
+			System.arraycopy(args, 2, remaining, 0, remaining.length);
+			args = remaining;
+		}
+
+		if (args.length < 2)
+		{
+			System.err.println("usage: " + Perft.class.getName() + " [-threads <n>] <rules> <depth> [position] [initial board]");
+			System.exit(1);
+		}
+
+		GameRules rules = rules(args[0]);
+		int depth = Integer.parseInt(args[1]);
+		Board initialBoard;
+		if (args.length > 3)
+		{
+			initialBoard = rules.getBoardGeometry().newBoard();
+			rules.parseBoard(initialBoard, args[3]);
+		}
+		else
+		{
+			initialBoard = rules.initialPositionFromBoard(null).getBoard();
+		}
+		// the position is altered in place, so it must not share its board with the initial board
+		GamePosition position = args.length > 2 ? rules.parsePosition(args[2]) : (GamePosition) rules.initialPositionFromBoard(
+				initialBoard).clone();
+
+		long start = System.nanoTime();
+		Map<String, Long> breakdown;
+		String breakdownLabel;
+		if (threads > 0)
+		{
+			ParallelPerft perft = new ParallelPerft(rules, threads);
+			ParallelPerft.Result result = perft.perft(position, initialBoard, depth);
+			perft.shutdown();
+			breakdown = result.getNodesByThread();
+			breakdownLabel = "subtrees: " + result.getSubtrees();
+		}
+		else
+		{
+			breakdown = new Perft(rules).divide(position, initialBoard, depth);
+			breakdownLabel = "moves: " + breakdown.size();
+		}
+		long nanos = System.nanoTime() - start;
+
+		long nodes = 0;
+		for (Map.Entry<String, Long> entry : breakdown.entrySet())
+		{
+			System.out.println(entry.getKey() + ": " + entry.getValue());
+			nodes += entry.getValue();
+		}
+		System.out.println();
+		System.out.println(breakdownLabel);
+		System.out.println("nodes: " + nodes);
+		System.out.println("time: " + nanos / 1000000 + " ms");
+		System.out.println("nodes/s: " + (nanos > 0 ? nodes * 1000000000L / nanos : 0));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static GameRules rules(String spec) throws Exception
+	{
+		String[] parts = spec.split(":");
+		Class<?> rulesClass = Class.forName(parts[0]);
+
+		for (Constructor<?> constructor : rulesClass.getConstructors())
+		{
+			Class<?>[] parameterTypes = constructor.getParameterTypes();
+			if (parts.length == 1 && parameterTypes.length == 0)
+				return (GameRules) constructor.newInstance();
+			if (parameterTypes.length == 1 && parameterTypes[0].isEnum())
+				return (GameRules) constructor.newInstance(parts.length > 1 ? Enum.valueOf((Class) parameterTypes[0], parts[1]) : null);
+		}
+
+		throw new IllegalArgumentException("cannot instantiate: " + spec);
+	}
+}
@@ -26,19 +26,14 @@ import java.io.Serializable;
  */
 public abstract class Piece implements Comparable<Piece>, Serializable
 {
-	public static int instanceCount;
-
-	private int color;
-
-	protected Piece()
-	{
-		instanceCount++;
-	}
+	private final int color;
+	private final long zobristSeed;
 
 	protected Piece(int color)
 	{
-		this();
+		Instrumentation.increment(Instrumentation.Counter.PIECE);
 		this.color = color;
+		this.zobristSeed = Zobrist.key(Zobrist.seed(getClass().getName()), color);
 	}
 
 	public final int getColor()
@@ -46,6 +41,14 @@ public abstract class Piece implements Comparable<Piece>, Serializable
 		return color;
 	}
 
+	/**
+	 * Seed for Zobrist keys of this piece, equal for equal pieces.
+	 */
+	public final long getZobristSeed()
+	{
+		return zobristSeed;
+	}
+
 	public final boolean sameColor(Piece piece)
 	{
 		return this.getColor() == piece.getColor();
@@ -22,20 +22,18 @@ import java.util.List;
 import java.util.Locale;
 
 /**
- * Factory for pieces.
+ * Factory for pieces. Piece sets and their pieces are immutable after construction and can be shared between threads.
  * 
  * @author Andreas Schildbach
  */
 public abstract class PieceSet
 {
-	public static int instanceCount;
-
 	private final String[] colorTags;
 	private final char[] colorChars;
 
 	protected PieceSet(ColorEntry[] colors)
 	{
-		instanceCount++;
+		Instrumentation.increment(Instrumentation.Counter.PIECE_SET);
 
 		colorTags = new String[colors.length];
 		colorChars = new char[colors.length];
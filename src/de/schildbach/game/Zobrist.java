@@ -0,0 +1,78 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+/**
+ * Source of the 64 bit keys used for Zobrist hashing of positions. Keys are derived deterministically from their
+ * inputs, so they are stable across runs and serialization.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class Zobrist
+{
+	private static final long ACTIVE_PLAYER = 0x6a09e667f3bcc908L;
+
+	/**
+	 * Derives a key from a seed and an index.
+	 * 
+	 * @param seed
+	 *            seed, e.g. a string hash
+	 * @param index
+	 *            index, e.g. a coordinate key
+	 * @return 64 bit key
+	 */
+	public static long key(long seed, int index)
+	{
+		// SplitMix64 finalizer
+		long z = seed + (index + 1) * 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Derives a seed from a name, for use with {@link #key(long, int)}.
+	 */
+	public static long seed(String name)
+	{
+		return key(name.hashCode(), 0);
+	}
+
+	/**
+	 * Key for the player to move. Player 0 has a key of 0, so a fresh position needs no initialization.
+	 */
+	public static long activePlayer(int playerIndex)
+	{
+		if (playerIndex == 0)
+			return 0;
+		else
+			return key(ACTIVE_PLAYER, playerIndex);
+	}
+
+	/**
+	 * Folds a key into an int, for use as a hash code.
+	 */
+	public static int fold(long key)
+	{
+		return (int) (key ^ (key >>> 32));
+	}
+
+	private Zobrist()
+	{
+	}
+}
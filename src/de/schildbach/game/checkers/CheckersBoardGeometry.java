@@ -17,12 +17,10 @@
 
 package de.schildbach.game.checkers;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
 import de.schildbach.game.common.OrthogonalFieldNotations;
+import de.schildbach.game.common.Vectors;
 
 /**
  * @author Andreas Schildbach
@@ -83,13 +81,9 @@ public class CheckersBoardGeometry extends ChessBoardLikeGeometry
 
 	// vectors
 
-	public Set<int[]> forwardVectors(int color)
+	public Vectors forwardVectors(int color)
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		int[] forward = forwardDir(color);
-		vectors.add(vectorAdd(forward, east()));
-		vectors.add(vectorAdd(forward, west()));
-		return vectors;
+		return forwardDiagonalVectors2D(color);
 	}
 
 	// geometric checks
@@ -32,6 +32,7 @@ import de.schildbach.game.Coordinate;
 import de.schildbach.game.GameMove;
 import de.schildbach.game.GamePosition;
 import de.schildbach.game.GameRules;
+import de.schildbach.game.GameStatus;
 import de.schildbach.game.MicroOperation;
 import de.schildbach.game.PieceSet.ColorEntry;
 import de.schildbach.game.checkers.piece.CheckersPiece;
@@ -68,8 +69,8 @@ public class CheckersRules extends GameRules
 			new ColorEntry(1, "black", 'b') //
 	};
 
-	private boolean suicide = false;
-	private boolean quantityRule = true;
+	private final boolean suicide;
+	private final boolean quantityRule = true;
 
 	private static final int BOARD_SIZE = 10;
 
@@ -77,18 +78,7 @@ public class CheckersRules extends GameRules
 	{
 		super(CheckersBoardGeometry.instance(BOARD_SIZE), new GenericPieceSet(PIECES, COLORS));
 
-		if (variant == null)
-		{
-			suicide = false;
-		}
-		else if (variant == Variant.SUICIDE)
-		{
-			suicide = true;
-		}
-		else
-		{
-			throw new IllegalArgumentException("unknown variant: " + variant);
-		}
+		suicide = variant == Variant.SUICIDE;
 	}
 
 	@Override
@@ -196,13 +186,30 @@ public class CheckersRules extends GameRules
 		return getAllowedMoves(gamePosition);
 	}
 
+	@Override
+	public boolean hasLegalMove(GamePosition position, Board initialBoard)
+	{
+		Board board = position.getBoard();
+		CheckersBoardGeometry geometry = (CheckersBoardGeometry) getBoardGeometry();
+
+		// every potential target leads to a move, and the quantity rule never vetoes all of them
+		for (Coordinate source : board.viewPieces(position.getActivePlayerIndex()))
+		{
+			CheckersPiece piece = (CheckersPiece) board.getPiece(source);
+			if (!piece.getPotentialTargets(geometry, board, source, false).isEmpty())
+				return true;
+		}
+
+		return false;
+	}
+
 	private Collection<CheckersMove> getAllowedMoves(GamePosition gamePosition)
 	{
 		CapturingGamePosition position = (CapturingGamePosition) gamePosition;
 		Board board = position.getBoard();
 		CheckersBoardGeometry geometry = (CheckersBoardGeometry) getBoardGeometry();
 
-		// collect moves allowed by base rules
+		// collect moves allowed by base rules, from a copy of the sources as the board is modified temporarily
 		Set<CheckersMove> potentialMoves = new HashSet<CheckersMove>();
 		for (Coordinate source : board.locatePieces(position.getActivePlayerIndex()))
 		{
@@ -309,31 +316,30 @@ public class CheckersRules extends GameRules
 	@Override
 	public boolean isFinished(GamePosition position, Board initialBoard)
 	{
-		return isWin(position);
+		return !hasLegalMove(position, initialBoard);
 	}
 
 	@Override
 	public float[] points(GamePosition position, Board initialBoard)
 	{
-		if (isFinished(position, initialBoard))
-			return pointsForWin(getWinnerIndex(position));
-		else
-			return new float[] { 0f, 0f };
+		return status(position, initialBoard).getPoints();
 	}
 
-	private boolean isWin(GamePosition position)
+	@Override
+	protected GameStatus computeStatus(GamePosition position, Board initialBoard)
 	{
-		return getAllowedMoves(position).isEmpty();
-	}
+		int legalMoveCount = getAllowedMoves(position).size();
 
-	private int getWinnerIndex(GamePosition position)
-	{
-		if (!isWin(position))
-			throw new IllegalStateException();
-		if (!suicide)
-			return 1 - position.getActivePlayerIndex();
+		// player who cannot move loses, or wins if suicide variant
+		if (legalMoveCount == 0)
+		{
+			int winnerIndex = !suicide ? 1 - position.getActivePlayerIndex() : position.getActivePlayerIndex();
+			return new GameStatus(false, legalMoveCount, true, winnerIndex, pointsForWin(winnerIndex));
+		}
 		else
-			return position.getActivePlayerIndex();
+		{
+			return new GameStatus(false, legalMoveCount, false, GameStatus.NO_WINNER, new float[] { 0f, 0f });
+		}
 	}
 
 	/**
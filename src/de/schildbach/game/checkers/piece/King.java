@@ -24,6 +24,7 @@ import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.Piece;
 import de.schildbach.game.checkers.CheckersBoardGeometry;
+import de.schildbach.game.common.Vectors;
 
 /**
  * @author Andreas Schildbach
@@ -40,16 +41,17 @@ public final class King extends CheckersPiece
 	{
 		Set<Coordinate> targets = new HashSet<Coordinate>();
 
-		for (int[] dir : geometry.diagonalVectors2D())
-			addMoveTargets(targets, geometry, board, source, capturingOnly, dir);
+		Vectors vectors = geometry.diagonalVectors2D();
+		for (int i = 0; i < vectors.size(); i++)
+			addMoveTargets(targets, geometry, board, source, capturingOnly, vectors, i);
 
 		return targets;
 	}
 
 	private void addMoveTargets(Set<Coordinate> targets, CheckersBoardGeometry geometry, Board board, Coordinate source, boolean capturingOnly,
-			int[] vector)
+			Vectors vectors, int index)
 	{
-		Coordinate c = geometry.vectorAdd(source, vector, 1);
+		Coordinate c = geometry.vectorAdd(source, vectors, index, 1);
 		boolean capturing = false;
 		while (c != null)
 		{
@@ -76,7 +78,7 @@ public final class King extends CheckersPiece
 					break;
 			}
 
-			c = geometry.vectorAdd(c, vector, 1);
+			c = geometry.vectorAdd(c, vectors, index, 1);
 		}
 	}
 }
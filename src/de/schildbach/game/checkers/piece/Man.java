@@ -24,6 +24,7 @@ import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.Piece;
 import de.schildbach.game.checkers.CheckersBoardGeometry;
+import de.schildbach.game.common.Vectors;
 
 /**
  * @author Andreas Schildbach
@@ -55,11 +56,11 @@ public final class Man extends CheckersPiece
 		return targets;
 	}
 
-	private void addPlainMoveTargets(Set<Coordinate> targets, CheckersBoardGeometry geometry, Board board, Coordinate source, Set<int[]> vectors)
+	private void addPlainMoveTargets(Set<Coordinate> targets, CheckersBoardGeometry geometry, Board board, Coordinate source, Vectors vectors)
 	{
-		for (int[] v : vectors)
+		for (int i = 0; i < vectors.size(); i++)
 		{
-			Coordinate target = geometry.vectorAdd(source, v, 1);
+			Coordinate target = geometry.vectorAdd(source, vectors, i, 1);
 			if (target != null && board.getPiece(target) == null)
 			{
 				targets.add(target);
@@ -67,14 +68,14 @@ public final class Man extends CheckersPiece
 		}
 	}
 
-	private void addCapturingMoveTargets(Set<Coordinate> targets, CheckersBoardGeometry geometry, Board board, Coordinate source, Set<int[]> vectors)
+	private void addCapturingMoveTargets(Set<Coordinate> targets, CheckersBoardGeometry geometry, Board board, Coordinate source, Vectors vectors)
 	{
-		for (int[] v : vectors)
+		for (int i = 0; i < vectors.size(); i++)
 		{
-			Coordinate target = geometry.vectorAdd(source, v, 2);
+			Coordinate target = geometry.vectorAdd(source, vectors, i, 2);
 			if (target != null && board.getPiece(target) == null)
 			{
-				Coordinate jumpOver = geometry.vectorAdd(source, v, 1);
+				Coordinate jumpOver = geometry.vectorAdd(source, vectors, i, 1);
 				if (jumpOver != null)
 				{
 					Piece j = board.getPiece(jumpOver);
@@ -21,6 +21,7 @@ import java.util.Arrays;
 
 import de.schildbach.game.Board;
 import de.schildbach.game.Piece;
+import de.schildbach.game.Zobrist;
 import de.schildbach.game.chess.piece.AntiKing;
 import de.schildbach.game.chess.piece.King;
 
@@ -29,6 +30,9 @@ import de.schildbach.game.chess.piece.King;
  */
 public class AntiKingChessPosition extends ChessLikePosition
 {
+	private static final long ZOBRIST_KING_CASTLING = Zobrist.seed("king castling");
+	private static final long ZOBRIST_ANTIKING_CASTLING = Zobrist.seed("antiking castling");
+
 	private boolean kingCastlingAvailable[];
 	private boolean antiKingCastlingAvailable[];
 
@@ -52,11 +56,21 @@ public class AntiKingChessPosition extends ChessLikePosition
 	public void setCastlingAvailable(int color, Class<? extends Piece> piece, boolean castlingAvailable)
 	{
 		if (piece.equals(King.class))
+		{
+			if (kingCastlingAvailable[color] != castlingAvailable)
+				toggleZobristKey(Zobrist.key(ZOBRIST_KING_CASTLING, color));
 			kingCastlingAvailable[color] = castlingAvailable;
+		}
 		else if (piece.equals(AntiKing.class))
+		{
+			if (antiKingCastlingAvailable[color] != castlingAvailable)
+				toggleZobristKey(Zobrist.key(ZOBRIST_ANTIKING_CASTLING, color));
 			antiKingCastlingAvailable[color] = castlingAvailable;
+		}
 		else
+		{
 			throw new IllegalArgumentException("no king piece: " + piece);
+		}
 	}
 
 	@Override
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.chess;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.Coordinate;
+import de.schildbach.game.Piece;
+import de.schildbach.game.chess.piece.AntiKing;
+import de.schildbach.game.chess.piece.BerolinaPawn;
+import de.schildbach.game.chess.piece.Bishop;
+import de.schildbach.game.chess.piece.King;
+import de.schildbach.game.chess.piece.Knight;
+import de.schildbach.game.chess.piece.Pawn;
+import de.schildbach.game.chess.piece.Queen;
+import de.schildbach.game.chess.piece.Rook;
+
+/**
+ * Bitboard representation of an 8x8 chess board. There is one 64 bit word per piece type and color. Bit indices equal
+ * the coordinate keys of {@link ChessBoardGeometry}, so a8 is bit 0 and h1 is bit 63.
+ * 
+ * <p>
+ * Instances are cheap to create from a {@link Board} and are meant to be used by a single thread for the duration of a
+ * move generation.
+ * </p>
+ * 
+ * @author Andreas Schildbach
+ */
+final class ChessBitboard
+{
+	static final int PAWN = 0;
+	static final int KNIGHT = 1;
+	static final int BISHOP = 2;
+	static final int ROOK = 3;
+	static final int QUEEN = 4;
+	static final int KING = 5;
+	static final int ANTIKING = 6;
+	static final int BEROLINA_PAWN = 7;
+	static final int NUM_TYPES = 8;
+
+	private static final int NORTH = 0;
+	private static final int NORTHEAST = 1;
+	private static final int EAST = 2;
+	private static final int SOUTHEAST = 3;
+	private static final int SOUTH = 4;
+	private static final int SOUTHWEST = 5;
+	private static final int WEST = 6;
+	private static final int NORTHWEST = 7;
+
+	private static final int[][] DIRECTIONS = { { 0, 1 }, { 1, 1 }, { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, -1 }, { -1, 0 }, { -1, 1 } };
+	private static final int[][] KNIGHT_VECTORS = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } };
+
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+	private static final long[][] PAWN_PUSHES = new long[2][64];
+	private static final long[][] RAYS = new long[DIRECTIONS.length][64];
+
+	static
+	{
+		for (int y = 0; y < 8; y++)
+		{
+			for (int x = 0; x < 8; x++)
+			{
+				int square = square(x, y);
+
+				for (int[] v : KNIGHT_VECTORS)
+					KNIGHT_ATTACKS[square] |= bit(x + v[0], y + v[1]);
+
+				for (int dir = 0; dir < DIRECTIONS.length; dir++)
+				{
+					int[] v = DIRECTIONS[dir];
+					KING_ATTACKS[square] |= bit(x + v[0], y + v[1]);
+					for (int r = 1; r < 8; r++)
+						RAYS[dir][square] |= bit(x + v[0] * r, y + v[1] * r);
+				}
+
+				PAWN_ATTACKS[0][square] = bit(x - 1, y + 1) | bit(x + 1, y + 1);
+				PAWN_ATTACKS[1][square] = bit(x - 1, y - 1) | bit(x + 1, y - 1);
+				PAWN_PUSHES[0][square] = bit(x, y + 1);
+				PAWN_PUSHES[1][square] = bit(x, y - 1);
+			}
+		}
+	}
+
+	private static int square(int x, int y)
+	{
+		return (7 - y) * 8 + x;
+	}
+
+	private static long bit(int x, int y)
+	{
+		if (x < 0 || x >= 8 || y < 0 || y >= 8)
+			return 0;
+
+		return 1L << square(x, y);
+	}
+
+	private final long[] pieces = new long[2 * NUM_TYPES];
+	private final long[] colors = new long[2];
+
+	// scratch space for speculative moves
+	private final long[] savedPieces = new long[2 * NUM_TYPES];
+	private final long[] savedColors = new long[2];
+
+	private ChessBitboard()
+	{
+	}
+
+	/**
+	 * Creates a bitboard from an 8x8 board.
+	 */
+	static ChessBitboard fromBoard(Board board)
+	{
+		ChessBitboard bitboard = new ChessBitboard();
+
+		for (Coordinate coordinate : board.locateOccupiedFields())
+		{
+			Piece piece = board.getPiece(coordinate);
+			bitboard.put(coordinate.getKey(), piece.getColor(), typeOf(piece));
+		}
+
+		return bitboard;
+	}
+
+	static int typeOf(Piece piece)
+	{
+		Class<?> clazz = piece.getClass();
+		if (clazz == Pawn.class)
+			return PAWN;
+		else if (clazz == Knight.class)
+			return KNIGHT;
+		else if (clazz == Bishop.class)
+			return BISHOP;
+		else if (clazz == Rook.class)
+			return ROOK;
+		else if (clazz == Queen.class)
+			return QUEEN;
+		else if (clazz == King.class)
+			return KING;
+		else if (clazz == AntiKing.class)
+			return ANTIKING;
+		else if (clazz == BerolinaPawn.class)
+			return BEROLINA_PAWN;
+		else
+			throw new IllegalArgumentException("unsupported piece: " + piece);
+	}
+
+	static int typeOf(Class<? extends Piece> clazz)
+	{
+		if (clazz == Queen.class)
+			return QUEEN;
+		else if (clazz == Rook.class)
+			return ROOK;
+		else if (clazz == Bishop.class)
+			return BISHOP;
+		else if (clazz == Knight.class)
+			return KNIGHT;
+		else if (clazz == King.class)
+			return KING;
+		else
+			throw new IllegalArgumentException("unsupported promotion piece: " + clazz);
+	}
+
+	// accessors
+
+	long pieces(int color, int type)
+	{
+		return pieces[color * NUM_TYPES + type];
+	}
+
+	long occupied(int color)
+	{
+		return colors[color];
+	}
+
+	long occupied()
+	{
+		return colors[0] | colors[1];
+	}
+
+	/**
+	 * @return type of piece on square or -1 if empty
+	 */
+	int typeAt(int square)
+	{
+		long b = 1L << square;
+		if (((colors[0] | colors[1]) & b) == 0)
+			return -1;
+
+		int offset = (colors[0] & b) != 0 ? 0 : NUM_TYPES;
+		for (int type = 0; type < NUM_TYPES; type++)
+			if ((pieces[offset + type] & b) != 0)
+				return type;
+
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * @return color of piece on square or -1 if empty
+	 */
+	int colorAt(int square)
+	{
+		long b = 1L << square;
+		if ((colors[0] & b) != 0)
+			return 0;
+		else if ((colors[1] & b) != 0)
+			return 1;
+		else
+			return -1;
+	}
+
+	// mutators
+
+	void put(int square, int color, int type)
+	{
+		long b = 1L << square;
+		pieces[color * NUM_TYPES + type] |= b;
+		colors[color] |= b;
+	}
+
+	void remove(int square)
+	{
+		long mask = ~(1L << square);
+		for (int i = 0; i < pieces.length; i++)
+			pieces[i] &= mask;
+		colors[0] &= mask;
+		colors[1] &= mask;
+	}
+
+	void move(int source, int target)
+	{
+		int color = colorAt(source);
+		int type = typeAt(source);
+		remove(source);
+		put(target, color, type);
+	}
+
+	void save()
+	{
+		System.arraycopy(pieces, 0, savedPieces, 0, pieces.length);
+		System.arraycopy(colors, 0, savedColors, 0, colors.length);
+	}
+
+	void restore()
+	{
+		System.arraycopy(savedPieces, 0, pieces, 0, pieces.length);
+		System.arraycopy(savedColors, 0, colors, 0, colors.length);
+	}
+
+	// attacks
+
+	static long knightAttacks(int square)
+	{
+		return KNIGHT_ATTACKS[square];
+	}
+
+	static long kingAttacks(int square)
+	{
+		return KING_ATTACKS[square];
+	}
+
+	static long pawnAttacks(int color, int square)
+	{
+		return PAWN_ATTACKS[color][square];
+	}
+
+	static long pawnPushes(int color, int square)
+	{
+		return PAWN_PUSHES[color][square];
+	}
+
+	private static long positiveRayAttacks(int dir, int square, long occupied)
+	{
+		long attacks = RAYS[dir][square];
+		long blockers = attacks & occupied;
+		if (blockers != 0)
+			attacks ^= RAYS[dir][Long.numberOfTrailingZeros(blockers)];
+		return attacks;
+	}
+
+	private static long negativeRayAttacks(int dir, int square, long occupied)
+	{
+		long attacks = RAYS[dir][square];
+		long blockers = attacks & occupied;
+		if (blockers != 0)
+			attacks ^= RAYS[dir][63 - Long.numberOfLeadingZeros(blockers)];
+		return attacks;
+	}
+
+	static long rookAttacks(int square, long occupied)
+	{
+		return negativeRayAttacks(NORTH, square, occupied) | positiveRayAttacks(EAST, square, occupied)
+				| positiveRayAttacks(SOUTH, square, occupied) | negativeRayAttacks(WEST, square, occupied);
+	}
+
+	static long bishopAttacks(int square, long occupied)
+	{
+		return negativeRayAttacks(NORTHEAST, square, occupied) | positiveRayAttacks(SOUTHEAST, square, occupied)
+				| positiveRayAttacks(SOUTHWEST, square, occupied) | negativeRayAttacks(NORTHWEST, square, occupied);
+	}
+
+	/**
+	 * Determines the squares a piece could move to, without any special moves and without regard to check. Equivalent
+	 * to {@link de.schildbach.game.common.piece.ChessLikePiece#getPotentialTargets}.
+	 */
+	long potentialTargets(int square, int color, int type)
+	{
+		long own = colors[color];
+		long opponent = colors[1 - color];
+		long empty = ~(own | opponent);
+
+		switch (type)
+		{
+			case PAWN:
+				return (PAWN_PUSHES[color][square] & empty) | (PAWN_ATTACKS[color][square] & opponent);
+			case BEROLINA_PAWN:
+				return (PAWN_ATTACKS[color][square] & empty) | (PAWN_PUSHES[color][square] & opponent);
+			case KNIGHT:
+				return KNIGHT_ATTACKS[square] & ~own;
+			case BISHOP:
+				return bishopAttacks(square, own | opponent) & ~own;
+			case ROOK:
+				return rookAttacks(square, own | opponent) & ~own;
+			case QUEEN:
+				return (rookAttacks(square, own | opponent) | bishopAttacks(square, own | opponent)) & ~own;
+			case KING:
+				return KING_ATTACKS[square] & ~own;
+			case ANTIKING:
+				return KING_ATTACKS[square] & ~opponent;
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Determines if a square is threatened by any piece of a color. Equivalent to asking
+	 * {@link de.schildbach.game.common.piece.ChessLikePiece#isThreateningSquare} of each attacker.
+	 * 
+	 * @param includeKings
+	 *            if kings count as attackers
+	 * @param includeAntiKings
+	 *            if antikings count as attackers
+	 */
+	boolean isThreatened(int square, int attackerColor, boolean includeKings, boolean includeAntiKings)
+	{
+		int offset = attackerColor * NUM_TYPES;
+		long occupied = colors[0] | colors[1];
+
+		if ((PAWN_ATTACKS[1 - attackerColor][square] & pieces[offset + PAWN]) != 0)
+			return true;
+		if ((PAWN_PUSHES[1 - attackerColor][square] & pieces[offset + BEROLINA_PAWN]) != 0)
+			return true;
+		if ((KNIGHT_ATTACKS[square] & pieces[offset + KNIGHT]) != 0)
+			return true;
+
+		long kings = 0;
+		if (includeKings)
+			kings |= pieces[offset + KING];
+		if (includeAntiKings)
+			kings |= pieces[offset + ANTIKING];
+		if ((KING_ATTACKS[square] & kings) != 0)
+			return true;
+
+		long queens = pieces[offset + QUEEN];
+		long diagonal = pieces[offset + BISHOP] | queens;
+		if (diagonal != 0 && (bishopAttacks(square, occupied) & diagonal) != 0)
+			return true;
+		long orthogonal = pieces[offset + ROOK] | queens;
+		if (orthogonal != 0 && (rookAttacks(square, occupied) & orthogonal) != 0)
+			return true;
+
+		return false;
+	}
+
+	/**
+	 * Determines if a color is in check, by the same definition as
+	 * {@link de.schildbach.game.common.ChessLikeRules#checkState}: a king is in check if it is threatened, an antiking
+	 * is in check if it is not threatened.
+	 */
+	boolean isInCheck(int color, boolean checkRule, boolean antiCheckRule)
+	{
+		int attackerColor = 1 - color;
+
+		if (checkRule)
+		{
+			for (long kings = pieces(color, KING); kings != 0; kings &= kings - 1)
+				if (isThreatened(Long.numberOfTrailingZeros(kings), attackerColor, true, false))
+					return true;
+		}
+
+		if (antiCheckRule)
+		{
+			for (long antiKings = pieces(color, ANTIKING); antiKings != 0; antiKings &= antiKings - 1)
+				if (!isThreatened(Long.numberOfTrailingZeros(antiKings), attackerColor, false, false))
+					return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Mask of all squares on the same rank from one square to another, both inclusive.
+	 */
+	static long rankSpan(int square1, int square2)
+	{
+		assert square1 / 8 == square2 / 8 : "not on same rank";
+
+		int from = Math.min(square1, square2);
+		int to = Math.max(square1, square2);
+		long mask = 0;
+		for (int square = from; square <= to; square++)
+			mask |= 1L << square;
+		return mask;
+	}
+}
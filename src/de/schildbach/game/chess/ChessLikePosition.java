@@ -40,6 +40,7 @@ public class ChessLikePosition extends CapturingGamePosition
 	public void setHalfmoveClock(int halfmoveClock)
 	{
 		this.halfmoveClock = halfmoveClock;
+		modified();
 	}
 
 	@Override
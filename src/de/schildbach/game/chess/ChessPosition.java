@@ -23,12 +23,16 @@ import org.apache.commons.lang.ObjectUtils;
 
 import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
+import de.schildbach.game.Zobrist;
 
 /**
  * @author Andreas Schildbach
  */
 public class ChessPosition extends ChessLikePosition
 {
+	private static final long ZOBRIST_CASTLING = Zobrist.seed("castling");
+	private static final long ZOBRIST_EN_PASSANT = Zobrist.seed("en passant");
+
 	private boolean castlingAvailableWhite[];
 	private boolean castlingAvailableBlack[];
 	private Coordinate enPassantTargetSquare;
@@ -47,6 +51,10 @@ public class ChessPosition extends ChessLikePosition
 
 	public void setEnPassantTargetSquare(Coordinate enPassantTargetSquare)
 	{
+		if (this.enPassantTargetSquare != null)
+			toggleZobristKey(Zobrist.key(ZOBRIST_EN_PASSANT, this.enPassantTargetSquare.getKey()));
+		if (enPassantTargetSquare != null)
+			toggleZobristKey(Zobrist.key(ZOBRIST_EN_PASSANT, enPassantTargetSquare.getKey()));
 		this.enPassantTargetSquare = enPassantTargetSquare;
 	}
 
@@ -59,6 +67,8 @@ public class ChessPosition extends ChessLikePosition
 	public void setCastlingAvailable(int color, CastlingSide side, boolean castlingAvailable)
 	{
 		int i = side == CastlingSide.QUEENSIDE ? 0 : 1;
+		if (getCastlingAvailable(color, side) != castlingAvailable)
+			toggleZobristKey(Zobrist.key(ZOBRIST_CASTLING, color * 2 + i));
 		if (color == 0)
 			this.castlingAvailableWhite[i] = castlingAvailable;
 		else
@@ -24,6 +24,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -58,6 +59,7 @@ import de.schildbach.game.common.MovePieceOperation;
 import de.schildbach.game.common.NextPlayerOperation;
 import de.schildbach.game.common.OrthogonalBoardGeometry;
 import de.schildbach.game.common.SwapOutPieceOperation;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.GenericPieceSet.PieceEntry;
 import de.schildbach.game.common.piece.ChessLikePiece;
 import de.schildbach.game.exception.IllegalMoveException;
@@ -104,43 +106,45 @@ public class ChessRules extends ChessLikeRules
 	@SuppressWarnings("unchecked")
 	private static final Class<Piece>[] SUICIDE_PROMOTION_OPTIONS = new Class[] { Queen.class, King.class, Rook.class, Bishop.class, Knight.class };
 
-	private boolean mustCaptureRule = false;
-	private boolean promotionRule = true;
-	private Class<Piece>[] promotionOptions = DEFAULT_PROMOTION_OPTIONS;
-	private boolean castlingRule = true;
-	private boolean antiKingCastlingRule = false;
-	private boolean advanceTwoSquaresRule = true;
-	private boolean enPassantRule = true;
+	private final boolean mustCaptureRule;
+	private final boolean promotionRule = true;
+	private final Class<Piece>[] promotionOptions;
+	private final boolean castlingRule;
+	private final boolean antiKingCastlingRule;
+	private final boolean advanceTwoSquaresRule;
+	private final boolean enPassantRule;
+	private final boolean bitboards;
+	private final Coordinate[] squares = new Coordinate[64];
 
 	public ChessRules(Variant variant)
 	{
-		super(ChessBoardGeometry.instance(), new GenericPieceSet(variant == Variant.ANTIKING ? ANTIKING_PIECES : DEFAULT_PIECES, COLORS));
+		this(variant, false);
+	}
 
-		if (variant == null)
-		{
-			setCheckVulnerablePiece(King.class);
-		}
-		else if (variant == Variant.SUICIDE)
-		{
-			setCheckVulnerablePiece(null);
-			mustCaptureRule = true;
-			promotionOptions = SUICIDE_PROMOTION_OPTIONS;
-			castlingRule = false;
-			enPassantRule = false;
-		}
-		else if (variant == Variant.ANTIKING)
-		{
-			setCheckVulnerablePiece(King.class);
-			setAntiCheckVulnerablePiece(AntiKing.class);
-			castlingRule = false;
-			antiKingCastlingRule = true;
-			advanceTwoSquaresRule = false;
-			enPassantRule = false;
-		}
-		else
+	/**
+	 * @param variant
+	 *            variant of chess, or null for standard chess
+	 * @param bitboards
+	 *            generate moves on a bitboard representation of the position, rather than piece by piece on the board
+	 */
+	public ChessRules(Variant variant, boolean bitboards)
+	{
+		super(ChessBoardGeometry.instance(), new GenericPieceSet(variant == Variant.ANTIKING ? ANTIKING_PIECES : DEFAULT_PIECES, COLORS),
+				variant == Variant.SUICIDE ? null : King.class, variant == Variant.ANTIKING ? AntiKing.class : null);
+
+		this.bitboards = bitboards;
+		for (Iterator<Coordinate> i = getBoardGeometry().coordinateIterator(); i.hasNext();)
 		{
-			throw new IllegalArgumentException("unknown variant: " + variant);
+			Coordinate coordinate = i.next();
+			squares[coordinate.getKey()] = coordinate;
 		}
+
+		mustCaptureRule = variant == Variant.SUICIDE;
+		promotionOptions = variant == Variant.SUICIDE ? SUICIDE_PROMOTION_OPTIONS : DEFAULT_PROMOTION_OPTIONS;
+		castlingRule = variant == null;
+		antiKingCastlingRule = variant == Variant.ANTIKING;
+		advanceTwoSquaresRule = variant != Variant.ANTIKING;
+		enPassantRule = variant == null;
 	}
 
 	@Override
@@ -493,14 +497,14 @@ public class ChessRules extends ChessLikeRules
 		{
 			if (((ChessPosition) position).getCastlingAvailable(pieceColor, CastlingSide.QUEENSIDE))
 			{
-				Coordinate rookCoordinate = castle(board, source, CastlingSide.QUEENSIDE, initialBoard);
+				Coordinate rookCoordinate = castle(position, source, CastlingSide.QUEENSIDE, initialBoard);
 				if (rookCoordinate != null)
 					potentialMoves.add(new ChessMove(source, rookCoordinate));
 			}
 
 			if (((ChessPosition) position).getCastlingAvailable(pieceColor, CastlingSide.KINGSIDE))
 			{
-				Coordinate rookCoordinate = castle(board, source, CastlingSide.KINGSIDE, initialBoard);
+				Coordinate rookCoordinate = castle(position, source, CastlingSide.KINGSIDE, initialBoard);
 				if (rookCoordinate != null)
 					potentialMoves.add(new ChessMove(source, rookCoordinate));
 			}
@@ -511,9 +515,10 @@ public class ChessRules extends ChessLikeRules
 		{
 			if (((AntiKingChessPosition) position).getCastlingAvailable(pieceColor, piece.getClass()))
 			{
-				for (int[] vector : geometry.knightVectors2D())
+				Vectors vectors = geometry.knightVectors2D();
+				for (int i = 0; i < vectors.size(); i++)
 				{
-					Coordinate target = geometry.vectorAdd(source, vector, 1);
+					Coordinate target = geometry.vectorAdd(source, vectors, i, 1);
 					if (target != null && board.getPiece(target) == null)
 					{
 						potentialMoves.add(new ChessMove(source, target));
@@ -567,8 +572,261 @@ public class ChessRules extends ChessLikeRules
 		return potentialMoves;
 	}
 
-	private Coordinate castle(final Board board, final Coordinate kingCoordinate, CastlingSide side, final Board initialBoard)
+	@Override
+	protected Set<ChessLikeMove> potentialMoves(CapturingGamePosition position, Board initialBoard)
+	{
+		if (!bitboards)
+			return super.potentialMoves(position, initialBoard);
+
+		return potentialMovesOnBitboard(ChessBitboard.fromBoard(position.getBoard()), position, initialBoard);
+	}
+
+	/**
+	 * Bitboard equivalent of {@link #potentialMoves(CapturingGamePosition, Board)}. Leaves the bitboard as it is.
+	 */
+	private Set<ChessLikeMove> potentialMovesOnBitboard(ChessBitboard bitboard, CapturingGamePosition position, Board initialBoard)
+	{
+		int color = position.getActivePlayerIndex();
+		long empty = ~bitboard.occupied();
+		long promotionRank = color == 0 ? 0x00000000000000FFL : 0xFF00000000000000L;
+
+		long pawnHome = 0;
+		if (advanceTwoSquaresRule)
+			for (Coordinate c : initialBoard.locatePieces(getPieceSet().getPiece(Pawn.class, color)))
+				pawnHome |= 1L << c.getKey();
+
+		long enPassant = 0;
+		if (enPassantRule)
+		{
+			Coordinate enPassantTargetSquare = ((ChessPosition) position).getEnPassantTargetSquare();
+			if (enPassantTargetSquare != null)
+				enPassant = 1L << enPassantTargetSquare.getKey();
+		}
+
+		Set<ChessLikeMove> potentialMoves = new HashSet<ChessLikeMove>();
+		for (int type = 0; type < ChessBitboard.NUM_TYPES; type++)
+		{
+			for (long sources = bitboard.pieces(color, type); sources != 0; sources &= sources - 1)
+			{
+				int source = Long.numberOfTrailingZeros(sources);
+				long targets = bitboard.potentialTargets(source, color, type);
+
+				if (type == ChessBitboard.PAWN)
+				{
+					// add en passant capture
+					targets |= ChessBitboard.pawnAttacks(color, source) & enPassant;
+
+					// advance two squares rule
+					if ((pawnHome & (1L << source)) != 0)
+					{
+						long step = ChessBitboard.pawnPushes(color, source) & empty;
+						if (step != 0)
+							targets |= ChessBitboard.pawnPushes(color, Long.numberOfTrailingZeros(step)) & empty;
+					}
+
+					// promotion moves
+					if (promotionRule)
+					{
+						for (long promotions = targets & promotionRank; promotions != 0; promotions &= promotions - 1)
+							for (Class<Piece> option : promotionOptions)
+								potentialMoves.add(new ChessMove(squares[source], squares[Long.numberOfTrailingZeros(promotions)], option));
+						targets &= ~promotionRank;
+					}
+				}
+
+				// add castling moves
+				if (castlingRule && type == ChessBitboard.KING)
+				{
+					for (CastlingSide side : CastlingSide.values())
+					{
+						if (((ChessPosition) position).getCastlingAvailable(color, side))
+						{
+							int rookSquare = castle(bitboard, source, color, side, initialBoard);
+							if (rookSquare != -1)
+								targets |= 1L << rookSquare;
+						}
+					}
+				}
+
+				// add antiking castling moves
+				if (antiKingCastlingRule && (type == ChessBitboard.KING || type == ChessBitboard.ANTIKING))
+				{
+					if (((AntiKingChessPosition) position).getCastlingAvailable(color, type == ChessBitboard.KING ? King.class : AntiKing.class))
+						targets |= ChessBitboard.knightAttacks(source) & empty;
+				}
+
+				for (; targets != 0; targets &= targets - 1)
+					potentialMoves.add(new ChessMove(squares[source], squares[Long.numberOfTrailingZeros(targets)]));
+			}
+		}
+
+		return potentialMoves;
+	}
+
+	/**
+	 * Bitboard equivalent of {@link #castle(CapturingGamePosition, Coordinate, CastlingSide, Board)}.
+	 * 
+	 * @return square of castling rook, or -1 if castling is not possible
+	 */
+	private int castle(ChessBitboard bitboard, int kingSquare, int color, CastlingSide side, Board initialBoard)
+	{
+		// search for castling rook (on starting position for unambiguousness)
+		int rookSquare = lookForCastlingRook(squares[kingSquare], side, initialBoard, color).getKey();
+
+		// sanity check
+		if (bitboard.typeAt(rookSquare) != ChessBitboard.ROOK || bitboard.colorAt(rookSquare) != color)
+			throw new IllegalStateException();
+
+		int rankStart = kingSquare & ~7;
+		long kingPath = ChessBitboard.rankSpan(kingSquare, rankStart + (side == CastlingSide.QUEENSIDE ? 2 : 6));
+		long rookPath = ChessBitboard.rankSpan(rookSquare, rankStart + (side == CastlingSide.QUEENSIDE ? 3 : 5));
+
+		// check for empty fields along paths of king and rook
+		long blockers = bitboard.occupied() & ~(1L << kingSquare) & ~(1L << rookSquare);
+		if ((blockers & (kingPath | rookPath)) != 0)
+			return -1;
+
+		// check for unthreatened fields along path of king
+		if (getCheckVulnerablePiece() != null)
+		{
+			for (long path = kingPath; path != 0; path &= path - 1)
+			{
+				int square = Long.numberOfTrailingZeros(path);
+				if (bitboard.isThreatened(square, 1 - color, true, square != kingSquare))
+					return -1;
+			}
+		}
+
+		return rookSquare;
+	}
+
+	/**
+	 * Bitboard equivalent of {@link #removeKingInCheckPositions(Set, CapturingGamePosition, Board)}.
+	 */
+	private void removeKingInCheckPositionsOnBitboard(Set<ChessLikeMove> potentialMoves, CapturingGamePosition position)
+	{
+		boolean checkRule = getCheckVulnerablePiece() != null;
+		boolean antiCheckRule = getAntiCheckVulnerablePiece() != null;
+		if (!checkRule && !antiCheckRule)
+			return;
+
+		Board board = position.getBoard();
+		ChessBitboard bitboard = ChessBitboard.fromBoard(board);
+		int color = position.getActivePlayerIndex();
+
+		for (Iterator<ChessLikeMove> iMoves = potentialMoves.iterator(); iMoves.hasNext();)
+			if (leavesInCheckOnBitboard(bitboard, (ChessMove) iMoves.next(), board, color, checkRule, antiCheckRule))
+				iMoves.remove();
+	}
+
+	/**
+	 * Speculatively executes the move on the bitboard, and undoes it afterwards.
+	 * 
+	 * @return true if the move leaves the king of the given color in check
+	 */
+	private boolean leavesInCheckOnBitboard(ChessBitboard bitboard, ChessMove move, Board board, int color, boolean checkRule,
+			boolean antiCheckRule)
 	{
+		int source = move.getSource().getKey();
+		int target = move.getTarget().getKey();
+
+		// speculatively execute move
+		bitboard.save();
+		if (looksLikeCastlingMove(move, board))
+		{
+			int rankStart = source & ~7;
+			boolean kingSide = target > source;
+			bitboard.remove(source);
+			bitboard.remove(target);
+			bitboard.put(rankStart + (kingSide ? 6 : 2), color, ChessBitboard.KING);
+			bitboard.put(rankStart + (kingSide ? 5 : 3), color, ChessBitboard.ROOK);
+		}
+		else
+		{
+			int type = bitboard.typeAt(source);
+			if (looksLikeEnPassantCapture(move, board))
+				bitboard.remove(target + (color == 0 ? 8 : -8));
+			else if (bitboard.colorAt(target) != -1)
+				bitboard.remove(target);
+			if (move.getPromotionPiece() != null)
+				type = ChessBitboard.typeOf(move.getPromotionPiece());
+			bitboard.remove(source);
+			bitboard.put(target, color, type);
+		}
+
+		boolean inCheck = bitboard.isInCheck(color, checkRule, antiCheckRule);
+
+		// don't forget to undo move
+		bitboard.restore();
+
+		return inCheck;
+	}
+
+	/**
+	 * Judges the potential moves of the bitboard generator one by one, against a single bitboard of the position.
+	 */
+	private final class BitboardLegalMoveIterator implements Iterator<ChessLikeMove>
+	{
+		private final Board board;
+		private final ChessBitboard bitboard;
+		private final int color;
+		private final boolean checkRule = getCheckVulnerablePiece() != null;
+		private final boolean antiCheckRule = getAntiCheckVulnerablePiece() != null;
+		private final Iterator<ChessLikeMove> potentialMoves;
+		private ChessLikeMove next = null;
+
+		private BitboardLegalMoveIterator(CapturingGamePosition position, Board initialBoard)
+		{
+			this.board = position.getBoard();
+			this.bitboard = ChessBitboard.fromBoard(board);
+			this.color = position.getActivePlayerIndex();
+			this.potentialMoves = potentialMovesOnBitboard(bitboard, position, initialBoard).iterator();
+
+			advance();
+		}
+
+		private void advance()
+		{
+			while (potentialMoves.hasNext())
+			{
+				ChessLikeMove move = potentialMoves.next();
+				if (capturesVulnerablePiece(move, board))
+					continue;
+
+				if ((checkRule || antiCheckRule) && leavesInCheckOnBitboard(bitboard, (ChessMove) move, board, color, checkRule, antiCheckRule))
+					continue;
+
+				next = move;
+				return;
+			}
+
+			next = null;
+		}
+
+		public boolean hasNext()
+		{
+			return next != null;
+		}
+
+		public ChessLikeMove next()
+		{
+			if (next == null)
+				throw new NoSuchElementException();
+
+			ChessLikeMove move = next;
+			advance();
+			return move;
+		}
+
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private Coordinate castle(final CapturingGamePosition position, final Coordinate kingCoordinate, CastlingSide side, final Board initialBoard)
+	{
+		final Board board = position.getBoard();
 		ChessBoardGeometry geometry = (ChessBoardGeometry) getBoardGeometry();
 		final int pieceColor = board.getPiece(kingCoordinate).getColor();
 		char rank = kingCoordinate.getNotation().charAt(1);
@@ -590,7 +848,7 @@ public class ChessRules extends ChessLikeRules
 			{
 				if (!coordinate.equals(rookCoordinate) && !coordinate.equals(kingCoordinate) && board.getPiece(coordinate) != null)
 					return false;
-				if (checkRule && isCoordinateThreatened(board, coordinate, pieceColor))
+				if (checkRule && isCoordinateThreatened(position, coordinate, pieceColor))
 					return false;
 				return true;
 			}
@@ -645,13 +903,31 @@ public class ChessRules extends ChessLikeRules
 		return rookCoordinate;
 	}
 
+	@Override
+	protected boolean vetoesMovesIndependently()
+	{
+		return !mustCaptureRule;
+	}
+
+	@Override
+	protected Iterator<ChessLikeMove> legalMoveIterator(CapturingGamePosition position, Board initialBoard)
+	{
+		if (!bitboards)
+			return super.legalMoveIterator(position, initialBoard);
+
+		return new BitboardLegalMoveIterator(position, initialBoard);
+	}
+
 	@Override
 	protected void vetoPotentialMoves(Set<ChessLikeMove> potentialMoves, CapturingGamePosition position, Board initialBoard)
 	{
 		Board board = position.getBoard();
 
 		// enforce check rule
-		removeKingInCheckPositions(potentialMoves, position, initialBoard);
+		if (bitboards)
+			removeKingInCheckPositionsOnBitboard(potentialMoves, position);
+		else
+			removeKingInCheckPositions(potentialMoves, position, initialBoard);
 
 		// enforce must capture rule
 		if (mustCaptureRule)
@@ -698,7 +974,7 @@ public class ChessRules extends ChessLikeRules
 	@Override
 	public boolean canDrawBeClaimed(Game game)
 	{
-		return ((ChessLikePosition) game.getActualPosition()).getHalfmoveClock() >= 50 || super.canDrawBeClaimed(game);
+		return ((ChessLikePosition) peekActualPosition(game)).getHalfmoveClock() >= 50 || super.canDrawBeClaimed(game);
 	}
 
 	@Override
@@ -936,6 +1212,12 @@ public class ChessRules extends ChessLikeRules
 		return looksLikePlainCapture(move, board) || (enPassantRule && looksLikeEnPassantCapture(move, board));
 	}
 
+	@Override
+	protected final boolean looksLikeSimpleMove(ChessLikeMove move, Board board)
+	{
+		return !looksLikeCastlingMove(move, board) && !looksLikeEnPassantCapture(move, board);
+	}
+
 	protected boolean looksLikeEnPassantCapture(ChessLikeMove move, Board board)
 	{
 		ChessBoardGeometry geometry = (ChessBoardGeometry) getBoardGeometry();
@@ -22,6 +22,7 @@ import java.util.Set;
 import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.ChessLikePiece;
 
 /**
@@ -37,8 +38,7 @@ public class AntiKing extends ChessLikePiece
 	@Override
 	public Set<Coordinate> getPotentialTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source)
 	{
-		Set<int[]> vectors = geometry.orthogonalVectors2D();
-		vectors.addAll(geometry.diagonalVectors2D());
+		Vectors vectors = geometry.kingVectors2D();
 		return getPotentialJumpTargets(geometry, board, source, vectors, 1, true);
 	}
 
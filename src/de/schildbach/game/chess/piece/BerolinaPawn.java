@@ -17,11 +17,9 @@
 
 package de.schildbach.game.chess.piece;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.DirectionalPiece;
 
 /**
@@ -35,20 +33,14 @@ public class BerolinaPawn extends DirectionalPiece
 	}
 
 	@Override
-	protected Set<int[]> moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
-		Set<int[]> dirs = new HashSet<int[]>();
-		int[] forward = geometry.forwardDir(this.getColor());
-		dirs.add(geometry.vectorAdd(forward, geometry.kingSideDir()));
-		dirs.add(geometry.vectorAdd(forward, geometry.queenSideDir()));
-		return dirs;
+		return geometry.forwardDiagonalVectors2D(this.getColor());
 	}
 
 	@Override
-	protected Set<int[]> captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
-		Set<int[]> dirs = new HashSet<int[]>();
-		dirs.add(geometry.forwardDir(this.getColor()));
-		return dirs;
+		return geometry.forwardDirVectors(this.getColor());
 	}
 }
@@ -17,11 +17,9 @@
 
 package de.schildbach.game.chess.piece;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.DirectionalPiece;
 
 /**
@@ -38,20 +36,14 @@ public class Pawn extends DirectionalPiece
 	}
 
 	@Override
-	protected Set<int[]> moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(geometry.forwardDir(this.getColor()));
-		return vectors;
+		return geometry.forwardDirVectors(this.getColor());
 	}
 
 	@Override
-	protected Set<int[]> captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		int[] forward = geometry.forwardDir(this.getColor());
-		vectors.add(geometry.vectorAdd(forward, geometry.kingSideDir()));
-		vectors.add(geometry.vectorAdd(forward, geometry.queenSideDir()));
-		return vectors;
+		return geometry.forwardDiagonalVectors2D(this.getColor());
 	}
 }
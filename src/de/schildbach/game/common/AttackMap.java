@@ -0,0 +1,94 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.common;
+
+import java.util.Arrays;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.GameRules;
+
+/**
+ * Remembers which fields of a board are threatened by either color, for the state of the board it was last used
+ * with. Answers are filled in lazily and dropped all at once as soon as the board has been modified, so asking again
+ * for the same field is an array lookup.
+ * 
+ * @author Andreas Schildbach
+ */
+final class AttackMap
+{
+	private static final int NUM_COLORS = 2;
+
+	private final GameRules rules;
+	private final Board board;
+	private final int[][] generations;
+	private final boolean[][] threatened;
+	private int generation = 0;
+	private long modCount = -1;
+
+	AttackMap(GameRules rules, Board board)
+	{
+		this.rules = rules;
+		this.board = board;
+
+		int numCoordinates = rules.getBoardGeometry().getNumCoordinates();
+		generations = new int[NUM_COLORS][numCoordinates];
+		threatened = new boolean[NUM_COLORS][numCoordinates];
+	}
+
+	boolean isFor(GameRules rules, Board board)
+	{
+		return this.rules == rules && this.board == board;
+	}
+
+	/**
+	 * @return 1 if the field is threatened by the opponent of the defender, 0 if not, or -1 if unknown
+	 */
+	int lookup(int key, int defenderColor)
+	{
+		validate();
+
+		if (generations[defenderColor][key] != generation)
+			return -1;
+
+		return threatened[defenderColor][key] ? 1 : 0;
+	}
+
+	void store(int key, int defenderColor, boolean threatened)
+	{
+		validate();
+
+		this.generations[defenderColor][key] = generation;
+		this.threatened[defenderColor][key] = threatened;
+	}
+
+	private void validate()
+	{
+		long modCount = board.getModCount();
+		if (modCount != this.modCount)
+		{
+			// generation 0 is never valid, so fresh arrays need not be filled
+			if (++generation == 0)
+			{
+				for (int[] g : generations)
+					Arrays.fill(g, 0);
+				generation = 1;
+			}
+			this.modCount = modCount;
+		}
+	}
+}
@@ -22,7 +22,7 @@ package de.schildbach.game.common;
  */
 public class BigCoordinateFieldNotations implements OrthogonalFieldNotations
 {
-	private char separator;
+	private final char separator;
 
 	public BigCoordinateFieldNotations()
 	{
@@ -22,6 +22,7 @@ import java.util.List;
 
 import de.schildbach.game.Board;
 import de.schildbach.game.GamePosition;
+import de.schildbach.game.GameRules;
 import de.schildbach.game.Piece;
 import de.schildbach.game.PieceCapturing;
 
@@ -31,6 +32,7 @@ import de.schildbach.game.PieceCapturing;
 public class CapturingGamePosition extends GamePosition implements PieceCapturing
 {
 	private List<List<Piece>> capturedPieces = new LinkedList<List<Piece>>();
+	private transient AttackMap attackMap;
 
 	public CapturingGamePosition(Board board)
 	{
@@ -43,14 +45,27 @@ public class CapturingGamePosition extends GamePosition implements PieceCapturin
 	public void addCapturedPiece(int playerIndex, Piece piece)
 	{
 		capturedPieces.get(playerIndex).add(piece);
+		modified();
 	}
 
 	public Piece removeLastCapturedPiece(int playerIndex)
 	{
 		List<Piece> cp = capturedPieces.get(playerIndex);
+		modified();
 		return cp.remove(cp.size() - 1);
 	}
 
+	/**
+	 * @return attack map of the board for the given rules, created on first use
+	 */
+	AttackMap attackMap(GameRules rules)
+	{
+		if (attackMap == null || !attackMap.isFor(rules, getBoard()))
+			attackMap = new AttackMap(rules, getBoard());
+
+		return attackMap;
+	}
+
 	public Piece[] getCapturedPieces(int playerIndex)
 	{
 		return capturedPieces.get(playerIndex).toArray(new Piece[] {});
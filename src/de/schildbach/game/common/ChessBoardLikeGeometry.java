@@ -17,9 +17,6 @@
 
 package de.schildbach.game.common;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 
@@ -51,6 +48,30 @@ public abstract class ChessBoardLikeGeometry extends OrthogonalBoardGeometry
 
 	private static final int[] NORTHWEST = { -1, 1 };
 
+	private static final Vectors ORTHOGONAL_VECTORS_2D = new Vectors(NORTH, SOUTH, EAST, WEST);
+
+	private static final Vectors DIAGONAL_VECTORS_2D = new Vectors(NORTHEAST, SOUTHEAST, SOUTHWEST, NORTHWEST);
+
+	private static final Vectors KING_VECTORS_2D = new Vectors(NORTH, SOUTH, EAST, WEST, NORTHEAST, SOUTHEAST, SOUTHWEST, NORTHWEST);
+
+	private static final Vectors KNIGHT_VECTORS_2D = new Vectors(new int[][] { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 },
+			{ -2, 1 }, { -1, 2 } });
+
+	/** by color */
+	private static final Vectors[] FORWARD_DIR_VECTORS = { new Vectors(NORTH), new Vectors(SOUTH) };
+
+	/** by color */
+	private static final Vectors[] BACKWARD_DIR_VECTORS = { new Vectors(SOUTH), new Vectors(NORTH) };
+
+	/** by color */
+	private static final Vectors[] FORWARD_DIAGONAL_VECTORS_2D = { new Vectors(NORTHEAST, NORTHWEST), new Vectors(SOUTHEAST, SOUTHWEST) };
+
+	/** by color */
+	private static final Vectors[] FORWARD_FACING_VECTORS_2D = { new Vectors(NORTH, NORTHEAST, NORTHWEST), new Vectors(SOUTH, SOUTHEAST, SOUTHWEST) };
+
+	/** by color */
+	private static final Vectors[] FORWARD_ORTHOGONAL_VECTORS_2D = { new Vectors(NORTH, EAST, WEST), new Vectors(SOUTH, EAST, WEST) };
+
 	public int[] east()
 	{
 		return EAST;
@@ -121,6 +142,52 @@ public abstract class ChessBoardLikeGeometry extends OrthogonalBoardGeometry
 			return north();
 	}
 
+	/**
+	 * @return forward vector as the only element
+	 */
+	public Vectors forwardDirVectors(int color)
+	{
+		return FORWARD_DIR_VECTORS[color];
+	}
+
+	/**
+	 * @return backward vector as the only element
+	 */
+	public Vectors backwardDirVectors(int color)
+	{
+		return BACKWARD_DIR_VECTORS[color];
+	}
+
+	/**
+	 * Returns the 2 diagonal vectors facing forward, like a pawn captures.
+	 * 
+	 * @return forward diagonal vectors
+	 */
+	public Vectors forwardDiagonalVectors2D(int color)
+	{
+		return FORWARD_DIAGONAL_VECTORS_2D[color];
+	}
+
+	/**
+	 * Returns the forward vector and the 2 diagonal vectors facing forward.
+	 * 
+	 * @return forward facing vectors
+	 */
+	public Vectors forwardFacingVectors2D(int color)
+	{
+		return FORWARD_FACING_VECTORS_2D[color];
+	}
+
+	/**
+	 * Returns the orthogonal vectors not facing backward.
+	 * 
+	 * @return forward and sideways vectors
+	 */
+	public Vectors forwardOrthogonalVectors2D(int color)
+	{
+		return FORWARD_ORTHOGONAL_VECTORS_2D[color];
+	}
+
 	public int[] kingSideDir()
 	{
 		return east();
@@ -136,14 +203,9 @@ public abstract class ChessBoardLikeGeometry extends OrthogonalBoardGeometry
 	 * 
 	 * @return orthogonal vectors
 	 */
-	public Set<int[]> orthogonalVectors2D()
+	public Vectors orthogonalVectors2D()
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(north());
-		vectors.add(south());
-		vectors.add(east());
-		vectors.add(west());
-		return vectors;
+		return ORTHOGONAL_VECTORS_2D;
 	}
 
 	/**
@@ -250,14 +312,19 @@ public abstract class ChessBoardLikeGeometry extends OrthogonalBoardGeometry
 	 * 
 	 * @return diagonal vectors
 	 */
-	public Set<int[]> diagonalVectors2D()
+	public Vectors diagonalVectors2D()
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(northeast());
-		vectors.add(southeast());
-		vectors.add(southwest());
-		vectors.add(northwest());
-		return vectors;
+		return DIAGONAL_VECTORS_2D;
+	}
+
+	/**
+	 * Returns the 4 orthogonal and the 4 diagonal vectors in the 2d layer.
+	 * 
+	 * @return king vectors
+	 */
+	public Vectors kingVectors2D()
+	{
+		return KING_VECTORS_2D;
 	}
 
 	/**
@@ -349,18 +416,12 @@ public abstract class ChessBoardLikeGeometry extends OrthogonalBoardGeometry
 		return true;
 	}
 
-	public Set<int[]> knightVectors2D()
+	/**
+	 * @return knight vectors
+	 */
+	public Vectors knightVectors2D()
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(new int[] { 1, 2 });
-		vectors.add(new int[] { 2, 1 });
-		vectors.add(new int[] { 2, -1 });
-		vectors.add(new int[] { 1, -2 });
-		vectors.add(new int[] { -1, -2 });
-		vectors.add(new int[] { -2, -1 });
-		vectors.add(new int[] { -2, 1 });
-		vectors.add(new int[] { -1, 2 });
-		return vectors;
+		return KNIGHT_VECTORS_2D;
 	}
 
 	// geometric checks
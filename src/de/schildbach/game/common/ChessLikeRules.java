@@ -17,16 +17,20 @@
 
 package de.schildbach.game.common;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.GamePosition;
 import de.schildbach.game.GameRules;
+import de.schildbach.game.GameRulesListener;
+import de.schildbach.game.GameStatus;
 import de.schildbach.game.MicroOperation;
 import de.schildbach.game.Piece;
 import de.schildbach.game.PieceSet;
@@ -37,17 +41,25 @@ import de.schildbach.game.common.piece.ChessLikePiece;
  */
 public abstract class ChessLikeRules extends GameRules
 {
-	private Class<? extends ChessLikePiece> checkVulnerablePiece;
-	private Class<? extends ChessLikePiece> antiCheckVulnerablePiece;
+	/** below this number of potential moves, determining pinned pieces does not pay off */
+	private static final int PIN_ANALYSIS_MIN_MOVES = 8;
 
-	protected ChessLikeRules(OrthogonalBoardGeometry geometry, PieceSet pieceSet)
+	private final Class<? extends ChessLikePiece> checkVulnerablePiece;
+	private final Class<? extends ChessLikePiece> antiCheckVulnerablePiece;
+
+	/**
+	 * @param checkVulnerablePiece
+	 *            piece that must not be left in check, or null if there is no check
+	 * @param antiCheckVulnerablePiece
+	 *            piece that must always be in check, or null if there is no such piece
+	 */
+	protected ChessLikeRules(OrthogonalBoardGeometry geometry, PieceSet pieceSet, Class<? extends ChessLikePiece> checkVulnerablePiece,
+			Class<? extends ChessLikePiece> antiCheckVulnerablePiece)
 	{
 		super(geometry, pieceSet);
-	}
 
-	protected final void setCheckVulnerablePiece(Class<? extends ChessLikePiece> checkVulnerablePiece)
-	{
 		this.checkVulnerablePiece = checkVulnerablePiece;
+		this.antiCheckVulnerablePiece = antiCheckVulnerablePiece;
 	}
 
 	protected final Class<? extends ChessLikePiece> getCheckVulnerablePiece()
@@ -55,11 +67,6 @@ public abstract class ChessLikeRules extends GameRules
 		return checkVulnerablePiece;
 	}
 
-	protected final void setAntiCheckVulnerablePiece(Class<? extends ChessLikePiece> antiCheckVulnerablePiece)
-	{
-		this.antiCheckVulnerablePiece = antiCheckVulnerablePiece;
-	}
-
 	protected final Class<? extends ChessLikePiece> getAntiCheckVulnerablePiece()
 	{
 		return antiCheckVulnerablePiece;
@@ -67,16 +74,21 @@ public abstract class ChessLikeRules extends GameRules
 
 	/**
 	 * determines if one of the kings of a specific color is in check
+	 * 
+	 * @param remember
+	 *            remember the threats in the attack map of the position, which only pays off if the board is not modified
+	 *            before being asked again
 	 */
-	private boolean isInCheck(GamePosition position, int color)
+	private boolean isInCheck(GamePosition position, int color, boolean remember)
 	{
 		Board board = position.getBoard();
+		CapturingGamePosition capturingPosition = (CapturingGamePosition) position;
 
 		if (checkVulnerablePiece != null)
 		{
 			for (Coordinate c : board.locatePieces(getPieceSet().getPiece(checkVulnerablePiece, color)))
 			{
-				if (isCoordinateThreatened(board, c, color))
+				if (remember ? isCoordinateThreatened(capturingPosition, c, color) : isCoordinateThreatened(board, c, color))
 					return true;
 			}
 		}
@@ -85,7 +97,7 @@ public abstract class ChessLikeRules extends GameRules
 		{
 			for (Coordinate c : board.locatePieces(getPieceSet().getPiece(antiCheckVulnerablePiece, color)))
 			{
-				if (!isCoordinateThreatened(board, c, color))
+				if (remember ? !isCoordinateThreatened(capturingPosition, c, color) : !isCoordinateThreatened(board, c, color))
 					return true;
 			}
 		}
@@ -98,9 +110,22 @@ public abstract class ChessLikeRules extends GameRules
 	 */
 	public final CheckState checkState(GamePosition position, Board initialBoard)
 	{
-		boolean check = isInCheck(position, position.getActivePlayerIndex());
+		GameRulesListener listener = getListener();
+		if (listener == null)
+			return doCheckState(position, initialBoard);
+
+		long start = System.nanoTime();
+		CheckState checkState = doCheckState(position, initialBoard);
+		listener.operationCompleted(this, GameRulesListener.Operation.CHECK_STATE, position, System.nanoTime() - start, 0);
+		return checkState;
+	}
+
+	private CheckState doCheckState(GamePosition position, Board initialBoard)
+	{
+		GameStatus status = cachedStatus(position, initialBoard);
+		boolean check = status != null ? status.isCheck() : isInCheck(position, position.getActivePlayerIndex(), true);
 
-		if (allowedMoves(position, initialBoard).isEmpty())
+		if (!hasLegalMove(position, initialBoard))
 		{
 			if (check)
 				return CheckState.CHECKMATE;
@@ -124,26 +149,14 @@ public abstract class ChessLikeRules extends GameRules
 	@Override
 	public final Collection<? extends ChessLikeMove> allowedMoves(GamePosition position, Board initialBoard)
 	{
-		Set<ChessLikeMove> allowedMoves = new HashSet<ChessLikeMove>();
-
 		// collect potential moves
 		Board board = position.getBoard();
-		for (Coordinate source : board.locatePieces(position.getActivePlayerIndex()))
-		{
-			allowedMoves.addAll(potentialMovesForSource(source, (CapturingGamePosition) position, initialBoard));
-		}
+		Set<ChessLikeMove> allowedMoves = potentialMoves((CapturingGamePosition) position, initialBoard);
 
 		// (anti)check vulnerable pieces cannot be captured
 		for (Iterator<ChessLikeMove> iMoves = allowedMoves.iterator(); iMoves.hasNext();)
-		{
-			ChessLikeMove move = iMoves.next();
-			if (looksLikePlainCapture(move, board))
-			{
-				Piece piece = board.getPiece(move.getTarget());
-				if (isCheckVulnerablePiece(piece) || isAnticheckVulnerablePiece(piece))
-					iMoves.remove();
-			}
-		}
+			if (capturesVulnerablePiece(iMoves.next(), board))
+				iMoves.remove();
 
 		// remove moves
 		vetoPotentialMoves(allowedMoves, (CapturingGamePosition) position, initialBoard);
@@ -151,29 +164,113 @@ public abstract class ChessLikeRules extends GameRules
 		return allowedMoves;
 	}
 
+	protected final boolean capturesVulnerablePiece(ChessLikeMove move, Board board)
+	{
+		if (!looksLikePlainCapture(move, board))
+			return false;
+
+		Piece piece = board.getPiece(move.getTarget());
+		return isCheckVulnerablePiece(piece) || isAnticheckVulnerablePiece(piece);
+	}
+
+	/**
+	 * Judges the potential moves one by one, as long as {@link #vetoesMovesIndependently()}. Otherwise, falls back to
+	 * {@link #allowedMoves(GamePosition, Board)}.
+	 */
+	@Override
+	public final Iterator<? extends ChessLikeMove> legalMoves(GamePosition position, Board initialBoard)
+	{
+		if (!vetoesMovesIndependently())
+			return allowedMoves(position, initialBoard).iterator();
+
+		return legalMoveIterator((CapturingGamePosition) position, initialBoard);
+	}
+
+	@Override
+	public final boolean hasLegalMove(GamePosition position, Board initialBoard)
+	{
+		GameStatus status = cachedStatus(position, initialBoard);
+		if (status != null)
+			return status.getLegalMoveCount() > 0;
+
+		// vetoes depending on the other moves never remove all of them, so judging moves one by one is enough
+		return legalMoveIterator((CapturingGamePosition) position, initialBoard).hasNext();
+	}
+
+	/**
+	 * Judges the legal moves lazily, only used as long as {@link #vetoesMovesIndependently()}. By default, generates
+	 * the potential moves source by source and vetoes them one by one. Rules with a cheaper way of judging many moves
+	 * in a row may override this.
+	 */
+	protected Iterator<ChessLikeMove> legalMoveIterator(CapturingGamePosition position, Board initialBoard)
+	{
+		return new LegalMoveIterator(position, initialBoard);
+	}
+
+	/**
+	 * Tells if {@link #vetoPotentialMoves(Set, CapturingGamePosition, Board)} judges each move on its own. Vetoes that
+	 * depend on the other moves, like a must capture rule, must never remove all moves.
+	 */
+	protected boolean vetoesMovesIndependently()
+	{
+		return true;
+	}
+
+	/**
+	 * Collects the potential moves of the active player. By default, this asks
+	 * {@link #potentialMovesForSource(Coordinate, CapturingGamePosition, Board)} for each piece of the active player.
+	 * The returned set is modified by the caller.
+	 */
+	protected Set<ChessLikeMove> potentialMoves(CapturingGamePosition position, Board initialBoard)
+	{
+		Set<ChessLikeMove> potentialMoves = new HashSet<ChessLikeMove>();
+
+		for (Coordinate source : position.getBoard().viewPieces(position.getActivePlayerIndex()))
+			potentialMoves.addAll(potentialMovesForSource(source, position, initialBoard));
+
+		return potentialMoves;
+	}
+
 	protected abstract Set<ChessLikeMove> potentialMovesForSource(Coordinate source, CapturingGamePosition position, Board initialBoard);
 
 	protected abstract void vetoPotentialMoves(Set<ChessLikeMove> potentialMoves, CapturingGamePosition position, Board initialBoard);
 
 	/**
 	 * remove all "king in check" situations
+	 * 
+	 * Unless a check vulnerable piece is in check already, pinned pieces are determined once. Then, simple moves of
+	 * other pieces cannot lead to check and are kept without executing them. This relies on threats being blocked by
+	 * pieces in between only, never enabled by them, and on blockable threats following straight lines. All other
+	 * moves are executed speculatively.
 	 */
 	protected final void removeKingInCheckPositions(Set<ChessLikeMove> potentialMoves, CapturingGamePosition position, Board initialBoard)
 	{
 		if (checkVulnerablePiece != null || antiCheckVulnerablePiece != null)
 		{
+			Board board = position.getBoard();
 			int color = position.getActivePlayerIndex();
 
+			// blocking a threat can break the check of anti check vulnerable pieces, so no shortcut for them
+			Set<Coordinate> pinned = null;
+			if (antiCheckVulnerablePiece == null && potentialMoves.size() >= PIN_ANALYSIS_MIN_MOVES)
+				pinned = pinnedPieces(position, color);
+
 			for (Iterator<ChessLikeMove> iMoves = potentialMoves.iterator(); iMoves.hasNext();)
 			{
 				ChessLikeMove move = iMoves.next();
+				Coordinate source = move.getSource();
+
+				// shortcut
+				if (pinned != null && !pinned.contains(source) && !isCheckVulnerablePiece(board.getPiece(source))
+						&& looksLikeSimpleMove(move, board))
+					continue;
 
 				// speculatively execute move
 				List<MicroOperation> ops = disassembleMove(move, position, initialBoard);
 				doOperations(ops, position);
 
-				// remove move if leads to check
-				if (isInCheck(position, color))
+				// remove move if leads to check; the board changes with every move, so there is nothing to remember
+				if (isInCheck(position, color, false))
 					iMoves.remove();
 
 				// don't forget to undo move
@@ -182,6 +279,80 @@ public abstract class ChessLikeRules extends GameRules
 		}
 	}
 
+	/**
+	 * Determines the pieces of a specific color that may not leave their field, because a check vulnerable piece would
+	 * be threatened then. Rays are walked from each check vulnerable piece: an own piece followed by an opponent piece
+	 * threatening it is considered pinned. The board is not modified.
+	 * 
+	 * @return coordinates of pinned pieces, or null if a check vulnerable piece is in check already
+	 */
+	private Set<Coordinate> pinnedPieces(CapturingGamePosition position, int color)
+	{
+		ChessBoardLikeGeometry geometry = (ChessBoardLikeGeometry) getBoardGeometry();
+		Board board = position.getBoard();
+		Piece king = getPieceSet().getPiece(checkVulnerablePiece, color);
+		Set<Coordinate> pinned = new HashSet<Coordinate>();
+
+		for (Coordinate c : board.locatePieces(king))
+		{
+			if (isCoordinateThreatened(position, c, color))
+				return null;
+
+			Vectors dirs = geometry.allDirs();
+			for (int i = 0; i < dirs.size(); i++)
+			{
+				Coordinate blocker = null;
+				for (Coordinate target : geometry.ray(c, geometry.directionIndex(dirs, i)))
+				{
+					Piece piece = board.getPiece(target);
+					if (piece == null)
+						continue;
+
+					if (blocker == null && piece.getColor() == color)
+					{
+						blocker = target;
+						continue;
+					}
+
+					if (blocker != null && piece.getColor() != color
+							&& ((ChessLikePiece) piece).isThreateningSquare(geometry, board, target, blocker))
+						pinned.add(blocker);
+					break;
+				}
+			}
+		}
+
+		return pinned;
+	}
+
+	/**
+	 * Tells if a move just takes the moving piece from its source to its target, capturing at most the piece on the
+	 * target, without any other changes to the board. Such moves can only lead to check if the piece is pinned. By
+	 * default, no move is considered simple.
+	 */
+	protected boolean looksLikeSimpleMove(ChessLikeMove move, Board board)
+	{
+		return false;
+	}
+
+	/**
+	 * Like {@link #isCoordinateThreatened(Board, Coordinate, int)}, but remembers the answer in the attack map of the
+	 * position until its board is modified. Only use it while the board stays put, not for speculatively executed moves.
+	 */
+	protected final boolean isCoordinateThreatened(CapturingGamePosition position, Coordinate coordinate, int defenderColor)
+	{
+		AttackMap attackMap = position.attackMap(this);
+		int key = coordinate.getKey();
+
+		int threatened = attackMap.lookup(key, defenderColor);
+		if (threatened >= 0)
+			return threatened == 1;
+
+		boolean isThreatened = isCoordinateThreatened(position.getBoard(), coordinate, defenderColor);
+		attackMap.store(key, defenderColor, isThreatened);
+		return isThreatened;
+	}
+
 	/**
 	 * determines if a coordinate is threatened by any piece of a specific color
 	 */
@@ -193,8 +364,10 @@ public abstract class ChessLikeRules extends GameRules
 		boolean isDefenderCheckVulnerable = isCheckVulnerablePiece(piece);
 		boolean isDefenderAnticheckVulnerable = isAnticheckVulnerablePiece(piece);
 
-		for (Coordinate c : board.locatePieces(attackerColor))
+		int numAttackers = board.countPieces(attackerColor);
+		for (int i = 0; i < numAttackers; i++)
 		{
+			Coordinate c = board.locatePiece(attackerColor, i);
 			ChessLikePiece attacker = (ChessLikePiece) board.getPiece(c);
 			if (attacker.isThreateningSquare(geometry, board, c, coordinate))
 			{
@@ -248,45 +421,43 @@ public abstract class ChessLikeRules extends GameRules
 	@Override
 	public final boolean isFinished(GamePosition position, Board initialBoard)
 	{
-		return isDraw(position, initialBoard) || isWin(position, initialBoard);
+		GameStatus status = cachedStatus(position, initialBoard);
+		if (status != null)
+			return status.isFinished();
+
+		if (checkVulnerablePiece != null && onlyKingsOnBoard(position.getBoard()))
+			return true;
+
+		return !hasLegalMove(position, initialBoard);
 	}
 
 	@Override
 	public final float[] points(GamePosition position, Board initialBoard)
 	{
-		if (isWin(position, initialBoard))
-			return pointsForWin(getWinnerIndex(position, initialBoard));
-		else if (isDraw(position, initialBoard))
-			return pointsForDraw();
-		else
-			return new float[] { 0f, 0f };
+		return status(position, initialBoard).getPoints();
 	}
 
-	private boolean isWin(GamePosition position, Board initialBoard)
+	@Override
+	protected final GameStatus computeStatus(GamePosition position, Board initialBoard)
 	{
-		if (checkVulnerablePiece != null)
-			return checkState(position, initialBoard) == CheckState.CHECKMATE;
-		else
-			return allowedMoves(position, initialBoard).isEmpty();
-	}
+		int activeIndex = position.getActivePlayerIndex();
+		int legalMoveCount = allowedMoves(position, initialBoard).size();
+		boolean check = isInCheck(position, activeIndex, true);
 
-	private int getWinnerIndex(GamePosition position, Board initialBoard)
-	{
-		if (!isWin(position, initialBoard))
-			throw new IllegalStateException();
 		if (checkVulnerablePiece != null)
-			return 1 - position.getActivePlayerIndex();
-		else
-			// if suicide variant
-			return position.getActivePlayerIndex();
-	}
+		{
+			if (legalMoveCount == 0 && check)
+				return new GameStatus(check, legalMoveCount, true, 1 - activeIndex, pointsForWin(1 - activeIndex));
+			else if (legalMoveCount == 0 || onlyKingsOnBoard(position.getBoard()))
+				return new GameStatus(check, legalMoveCount, true, GameStatus.NO_WINNER, pointsForDraw());
+		}
+		else if (legalMoveCount == 0)
+		{
+			// suicide variant
+			return new GameStatus(check, legalMoveCount, true, activeIndex, pointsForWin(activeIndex));
+		}
 
-	private boolean isDraw(GamePosition position, Board initialBoard)
-	{
-		if (checkVulnerablePiece != null)
-			return checkState(position, initialBoard) == CheckState.STALEMATE || onlyKingsOnBoard(position.getBoard());
-		else
-			return false;
+		return new GameStatus(check, legalMoveCount, false, GameStatus.NO_WINNER, new float[] { 0f, 0f });
 	}
 
 	private boolean onlyKingsOnBoard(Board board)
@@ -306,4 +477,82 @@ public abstract class ChessLikeRules extends GameRules
 	{
 		return 1 - color;
 	}
+
+	/**
+	 * Generates the potential moves source by source, and vetoes them one by one.
+	 */
+	private final class LegalMoveIterator implements Iterator<ChessLikeMove>
+	{
+		private final CapturingGamePosition position;
+		private final Board initialBoard;
+		private final List<Coordinate> sources = new ArrayList<Coordinate>();
+		private final Set<ChessLikeMove> single = new HashSet<ChessLikeMove>(2);
+		private int sourceIndex = 0;
+		private Iterator<ChessLikeMove> potentialMoves = null;
+		private ChessLikeMove next = null;
+
+		private LegalMoveIterator(CapturingGamePosition position, Board initialBoard)
+		{
+			this.position = position;
+			this.initialBoard = initialBoard;
+
+			// vetoing moves modifies the board temporarily, so take a snapshot
+			for (Coordinate source : position.getBoard().viewPieces(position.getActivePlayerIndex()))
+				sources.add(source);
+
+			advance();
+		}
+
+		private void advance()
+		{
+			Board board = position.getBoard();
+
+			while (true)
+			{
+				while (potentialMoves != null && potentialMoves.hasNext())
+				{
+					ChessLikeMove move = potentialMoves.next();
+					if (capturesVulnerablePiece(move, board))
+						continue;
+
+					single.clear();
+					single.add(move);
+					vetoPotentialMoves(single, position, initialBoard);
+					if (!single.isEmpty())
+					{
+						next = move;
+						return;
+					}
+				}
+
+				if (sourceIndex >= sources.size())
+				{
+					next = null;
+					return;
+				}
+
+				potentialMoves = potentialMovesForSource(sources.get(sourceIndex++), position, initialBoard).iterator();
+			}
+		}
+
+		public boolean hasNext()
+		{
+			return next != null;
+		}
+
+		public ChessLikeMove next()
+		{
+			if (next == null)
+				throw new NoSuchElementException();
+
+			ChessLikeMove move = next;
+			advance();
+			return move;
+		}
+
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
 }
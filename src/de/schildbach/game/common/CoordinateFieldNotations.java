@@ -22,9 +22,9 @@ package de.schildbach.game.common;
  */
 public class CoordinateFieldNotations implements OrthogonalFieldNotations
 {
-	private int dimension;
-	private char[] baseChars;
-	private int[] order;
+	private final int dimension;
+	private final char[] baseChars;
+	private final int[] order;
 
 	public CoordinateFieldNotations(int[] order, char... baseChars)
 	{
@@ -34,8 +34,6 @@ import de.schildbach.game.PieceSet;
  */
 public final class GenericPieceSet extends PieceSet
 {
-	public static int instanceCount;
-
 	private final List<Piece> pieces;
 	private final Map<Character, Piece[]> charPieceMap = new HashMap<Character, Piece[]>();
 	private final Map<String, Piece> stringPieceMap = new HashMap<String, Piece>();
@@ -18,10 +18,7 @@
 package de.schildbach.game.common;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Set;
 
 import de.schildbach.game.BoardGeometry;
@@ -40,6 +37,31 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	private final int[] size;
 	protected final OrthogonalFieldNotations orthogonalFieldNotations;
 
+	/** number of unit directions, including the (unused) null vector */
+	private final int numDirections;
+	/** neighbour keys, by direction and key; -1 if beyond edge */
+	private final int[][] neighbours;
+	/** keys up to the edge, excluding the origin, by direction and key */
+	private final int[][][] rays;
+	/** coordinates up to the edge, excluding the origin, by direction and key */
+	private final Coordinate[][][] rayCoordinates;
+	/** directions of the orthogonal unit vectors, both ways */
+	private final int[] orthogonalDirections;
+	/** unit vector and its inverse, by direction */
+	private final Vectors[] bidirectionals;
+	private final Vectors normalVectors;
+	private final Vectors orthogonalVectors;
+	private final Vectors allDirs;
+	/** scratch space of fill, per thread */
+	private final ThreadLocal<FillScratch> fillScratch = new ThreadLocal<FillScratch>()
+	{
+		@Override
+		protected FillScratch initialValue()
+		{
+			return new FillScratch(getNumCoordinates());
+		}
+	};
+
 	public OrthogonalBoardGeometry(int[] size, OrthogonalFieldNotations orthogonalFieldNotations)
 	{
 		super(computeSize(size));
@@ -52,6 +74,30 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 			initCoordinates3D();
 		else
 			throw new IllegalArgumentException("cannot support " + dimension + "dimensions");
+
+		int numDirections = 1;
+		for (int i = 0; i < dimension; i++)
+			numDirections *= 3;
+		this.numDirections = numDirections;
+		this.neighbours = new int[numDirections][];
+		this.rays = new int[numDirections][][];
+		this.rayCoordinates = new Coordinate[numDirections][][];
+		this.orthogonalDirections = new int[dimension * 2];
+		this.bidirectionals = new Vectors[numDirections];
+		initTables();
+
+		int[][] normalVectors = new int[dimension][];
+		int[][] orthogonalVectors = new int[dimension * 2][];
+		for (int i = 0; i < dimension; i++)
+		{
+			normalVectors[i] = new int[dimension];
+			normalVectors[i][i] = 1;
+			orthogonalVectors[i * 2] = normalVectors[i];
+			orthogonalVectors[i * 2 + 1] = inverseVector(normalVectors[i]);
+		}
+		this.normalVectors = new Vectors(normalVectors);
+		this.orthogonalVectors = new Vectors(orthogonalVectors);
+		this.allDirs = new Vectors(computeAllDirs());
 	}
 
 	/**
@@ -115,6 +161,79 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 		putCoordinate(computeCoordinateKey(components), coordinate);
 	}
 
+	private void initTables()
+	{
+		int numCoordinates = getNumCoordinates();
+		int[] vector = new int[dimension];
+		int[] ray = new int[numCoordinates];
+
+		for (int direction = 0; direction < numDirections; direction++)
+		{
+			for (int i = 0, d = direction; i < dimension; i++, d /= 3)
+				vector[i] = d % 3 - 1;
+			if (isNullVector(vector))
+				continue;
+
+			neighbours[direction] = new int[numCoordinates];
+			rays[direction] = new int[numCoordinates][];
+			rayCoordinates[direction] = new Coordinate[numCoordinates][];
+			for (int key = 0; key < numCoordinates; key++)
+			{
+				Coordinate coordinate = getCoordinate(key);
+				int length = 0;
+				if (coordinate != null)
+				{
+					for (Coordinate c = addVector(coordinate, vector, 1); c != null; c = addVector(c, vector, 1))
+						ray[length++] = c.getKey();
+				}
+				neighbours[direction][key] = length > 0 ? ray[0] : -1;
+				rays[direction][key] = Arrays.copyOf(ray, length);
+				rayCoordinates[direction][key] = new Coordinate[length];
+				for (int i = 0; i < length; i++)
+					rayCoordinates[direction][key][i] = getCoordinate(ray[i]);
+			}
+
+			bidirectionals[direction] = new Vectors(vector, inverseVector(vector));
+		}
+
+		int[] normal = new int[dimension];
+		for (int i = 0; i < dimension; i++)
+		{
+			normal[i] = 1;
+			orthogonalDirections[i * 2] = directionIndex(normal);
+			orthogonalDirections[i * 2 + 1] = inverseDirection(orthogonalDirections[i * 2]);
+			normal[i] = 0;
+		}
+	}
+
+	private int[][] computeAllDirs()
+	{
+		if (dimension == 2)
+			return new int[][] { { 0, 1 }, { 0, -1 }, { 1, 0 }, { -1, 0 }, { 1, 1 }, { -1, -1 }, { 1, -1 }, { -1, 1 } };
+
+		int[][] allDirs = new int[numDirections - 1][];
+		int i = 0;
+		for (int direction = 0; direction < numDirections; direction++)
+		{
+			if (neighbours[direction] == null)
+				continue;
+			int[] dir = new int[dimension];
+			for (int axis = 0, d = direction; axis < dimension; axis++, d /= 3)
+				dir[axis] = d % 3 - 1;
+			allDirs[i++] = dir;
+		}
+		return allDirs;
+	}
+
+	private static boolean isNullVector(int[] vector)
+	{
+		for (int i = 0; i < vector.length; i++)
+			if (vector[i] != 0)
+				return false;
+
+		return true;
+	}
+
 	protected final int computeCoordinateKey(int[] components)
 	{
 		int key = 0;
@@ -264,23 +383,50 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	 * @return coordinate + (vector * factor)
 	 */
 	public Coordinate vectorAdd(Coordinate c, int[] vector, int factor)
+	{
+		if (factor == 1)
+		{
+			int direction = directionIndex(vector);
+			if (direction >= 0)
+			{
+				int key = neighbours[direction][c.getKey()];
+				return key >= 0 ? getCoordinate(key) : null;
+			}
+		}
+
+		return addVector(c, vector, factor);
+	}
+
+	/**
+	 * Like {@link #vectorAdd(Coordinate, int[], int)}, for one of a list of vectors.
+	 */
+	public final Coordinate vectorAdd(Coordinate c, Vectors vectors, int index, int factor)
+	{
+		return vectorAdd(c, vectors.vector(index), factor);
+	}
+
+	private Coordinate addVector(Coordinate c, int[] vector, int factor)
 	{
 		OrthogonalCoordinate oc = (OrthogonalCoordinate) c;
 
 		assert oc.components.length == this.dimension : "dimension mismatch";
 		assert vector.length <= this.dimension : "dimension mismatch";
 
-		int[] components = new int[dimension];
-
-		for (int i = 0; i < dimension; i++)
+		// same as computeCoordinateKey, but without allocating the components
+		int key = 0;
+		for (int axis = dimension - 1; axis >= 0; axis--)
 		{
-			if (i < vector.length)
-				components[i] = oc.components[i] + vector[i] * factor;
-			else
-				components[i] = oc.components[i];
+			int component = oc.components[axis];
+			if (axis < vector.length)
+				component += vector[axis] * factor;
+			if (component < 0 || component >= size[axis])
+				return null;
+			if (axis == AXIS_HEIGHT)
+				component = size[axis] - 1 - component;
+			key = key * size[axis] + component;
 		}
 
-		return getCoordinate(components);
+		return getCoordinate(key);
 	}
 
 	/**
@@ -290,9 +436,16 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	 */
 	public Coordinate vectorAddMax(Coordinate coordinate, int[] vector)
 	{
+		int direction = directionIndex(vector);
+		if (direction >= 0)
+		{
+			int[] ray = rays[direction][coordinate.getKey()];
+			return ray.length > 0 ? getCoordinate(ray[ray.length - 1]) : coordinate;
+		}
+
 		while (true)
 		{
-			Coordinate c = vectorAdd(coordinate, vector, 1);
+			Coordinate c = addVector(coordinate, vector, 1);
 			if (c == null)
 				return coordinate;
 			coordinate = c;
@@ -300,28 +453,94 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	}
 
 	/**
-	 * Determines the normal vectors of the geometry.
+	 * Determines the index of a unit vector, that is a vector with all components being -1, 0 or 1.
 	 * 
-	 * @return normals, one for each dimension
+	 * @return index into the neighbour and ray tables, or -1 if vector is not a unit vector
 	 */
-	public Set<int[]> normalVectors()
+	public final int directionIndex(int[] vector)
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
+		assert vector.length <= this.dimension : "dimension mismatch";
 
-		for (int i = 0; i < dimension; i++)
+		int direction = 0;
+		for (int i = vector.length - 1; i >= 0; i--)
 		{
-			int[] vector = new int[dimension];
-			vector[i] = 1;
-			vectors.add(vector);
+			int component = vector[i];
+			if (component < -1 || component > 1)
+				return -1;
+			direction = direction * 3 + component + 1;
 		}
+		for (int i = vector.length; i < dimension; i++)
+			direction += pow3(i);
 
-		return vectors;
+		return neighbours[direction] != null ? direction : -1;
 	}
 
 	/**
-	 * Inverts a vector.
+	 * Like {@link #directionIndex(int[])}, for one of a list of vectors.
+	 */
+	public final int directionIndex(Vectors vectors, int index)
+	{
+		return directionIndex(vectors.vector(index));
+	}
+
+	private static int pow3(int exponent)
+	{
+		int pow = 1;
+		for (int i = 0; i < exponent; i++)
+			pow *= 3;
+		return pow;
+	}
+
+	/**
+	 * @return key of the neighbour in the given direction, or -1 if beyond edge of geometry
+	 */
+	public final int neighbourKey(int key, int direction)
+	{
+		return neighbours[direction][key];
+	}
+
+	/**
+	 * @return keys from the given key (exclusive) in the given direction up to the edge of geometry; the array may not
+	 *         be altered
+	 */
+	public final int[] rayKeys(int key, int direction)
+	{
+		return rays[direction][key];
+	}
+
+	/**
+	 * @return coordinates from the given coordinate (exclusive) in the given direction up to the edge of geometry; the
+	 *         array may not be altered
+	 */
+	public final Coordinate[] ray(Coordinate coordinate, int direction)
+	{
+		return rayCoordinates[direction][coordinate.getKey()];
+	}
+
+	/**
+	 * Determines the normal vectors of the geometry.
 	 * 
-	 * @return inverse of vector
+	 * @return normals, one for each dimension
+	 */
+	public Vectors normalVectors()
+	{
+		return normalVectors;
+	}
+
+	/**
+	 * Determines the normal vectors of the geometry and their inverses.
+	 * 
+	 * @return orthogonal vectors, two for each dimension
+	 */
+	public Vectors orthogonalVectors()
+	{
+		return orthogonalVectors;
+	}
+
+	/**
+	 * Inverts a vector. Use {@link #inverseDirection(int)} to invert unit vectors without allocating.
+	 * 
+	 * @return inverse of vector, as a new array
 	 */
 	public int[] inverseVector(int[] vector)
 	{
@@ -336,16 +555,27 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	}
 
 	/**
-	 * Makes a vector bi-directional.
+	 * Inverts the direction of a unit vector.
+	 * 
+	 * @return index of the inverse unit vector into the neighbour and ray tables
+	 */
+	public final int inverseDirection(int direction)
+	{
+		return numDirections - 1 - direction;
+	}
+
+	/**
+	 * Makes a vector bi-directional. For unit vectors, the result is computed once per geometry.
 	 * 
 	 * @return vector and the inverse of vector
 	 */
-	public Set<int[]> bidirectional(int[] vector)
+	public Vectors bidirectional(int[] vector)
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(vector);
-		vectors.add(inverseVector(vector));
-		return vectors;
+		int direction = directionIndex(vector);
+		if (direction >= 0)
+			return bidirectionals[direction];
+
+		return new Vectors(vector, inverseVector(vector));
 	}
 
 	/**
@@ -446,12 +676,12 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 		}
 	}
 
-	public int[][] allDirs()
+	/**
+	 * @return all unit vectors
+	 */
+	public Vectors allDirs()
 	{
-		if (dimension == 2)
-			return new int[][] { { 0, 1 }, { 0, -1 }, { 1, 0 }, { -1, 0 }, { 1, 1 }, { -1, -1 }, { 1, -1 }, { -1, 1 } };
-		else
-			throw new IllegalStateException("this method does not support " + dimension + " dimensions yet");
+		return allDirs;
 	}
 
 	// geometric checks
@@ -480,49 +710,93 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 
 	/**
 	 * Tries to visit all nodes by expanding orthogonally. A hook method is invoked on each coordinate, whose return
-	 * value determines if it's ok to expand from that coordinate.
+	 * value determines if it's ok to expand from that coordinate. The queue and visited marks are kept per thread and
+	 * reused, so filling does not allocate, unless the hook starts another fill.
 	 */
 	public void fill(Coordinate coordinate, CoordinateHook hook)
 	{
-		Queue<Coordinate> q = new LinkedList<Coordinate>();
-		q.add(coordinate);
+		FillScratch scratch = fillScratch.get();
+		if (scratch.inUse)
+			scratch = new FillScratch(getNumCoordinates());
+
+		scratch.inUse = true;
+		try
+		{
+			fill(coordinate.getKey(), hook, scratch);
+		}
+		finally
+		{
+			scratch.inUse = false;
+		}
+	}
+
+	private void fill(int start, CoordinateHook hook, FillScratch scratch)
+	{
+		int[] queue = scratch.queue;
+		int[] visited = scratch.visited;
+		int generation = scratch.nextGeneration();
+		int head = 0, tail = 0;
 
-		Set<Coordinate> visited = new HashSet<Coordinate>();
+		// mark as visited when queueing, so each node is visited only once
+		queue[tail++] = start;
+		visited[start] = generation;
 
-		while ((coordinate = q.poll()) != null)
+		while (head < tail)
 		{
-			// mark as visited
-			visited.add(coordinate);
+			int key = queue[head++];
 
 			// call hook
-			boolean cont = hook.doNode(coordinate);
+			boolean cont = hook.doNode(getCoordinate(key));
 
 			// elaborate on this node?
 			if (cont)
 			{
 				// expand orthogonally
-				for (int[] normal : normalVectors())
+				for (int direction : orthogonalDirections)
 				{
-					for (int[] v : bidirectional(normal))
-					{
-						Coordinate neighbour = vectorAdd(coordinate, v, 1);
-
-						// beyond edge of board?
-						if (neighbour == null)
-							continue;
+					int neighbour = neighbours[direction][key];
 
-						// has node already been visited?
-						if (visited.contains(neighbour))
-							continue;
+					// beyond edge of board or already visited?
+					if (neighbour < 0 || visited[neighbour] == generation)
+						continue;
 
-						// queue for checking
-						q.add(neighbour);
-					}
+					// queue for checking
+					visited[neighbour] = generation;
+					queue[tail++] = neighbour;
 				}
 			}
 		}
 	}
 
+	/**
+	 * Queue and visited marks of {@link OrthogonalBoardGeometry#fill(Coordinate, CoordinateHook)}. A node counts as
+	 * visited if it is marked with the current generation, so the marks need not be cleared between fills.
+	 */
+	private static final class FillScratch
+	{
+		final int[] queue;
+		final int[] visited;
+		int generation = 0;
+		boolean inUse = false;
+
+		FillScratch(int numCoordinates)
+		{
+			queue = new int[numCoordinates];
+			visited = new int[numCoordinates];
+		}
+
+		int nextGeneration()
+		{
+			// generation 0 is never valid, so fresh arrays need not be filled
+			if (++generation == 0)
+			{
+				Arrays.fill(visited, 0);
+				generation = 1;
+			}
+			return generation;
+		}
+	}
+
 	/**
 	 * Tries to walk from c1 to c2 (both inclusive), taking steps. A hook method is invoked on each coordinate, whose
 	 * return value determines if it's ok to continue from that coordinate.
@@ -532,9 +806,8 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	public Coordinate walk(Coordinate c1, Coordinate c2, int[] step, CoordinateHook hook)
 	{
 		// walk
-		for (int factor = 0; true; factor++)
+		for (Coordinate c = c1; true; c = vectorAdd(c, step, 1))
 		{
-			Coordinate c = vectorAdd(c1, step, factor);
 			if (c == null)
 				throw new IllegalArgumentException();
 
@@ -556,9 +829,8 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	public Coordinate walk(Coordinate coordinate, int[] step, CoordinateHook hook)
 	{
 		// walk
-		for (int factor = 0; true; factor++)
+		for (Coordinate c = coordinate; true; c = vectorAdd(c, step, 1))
 		{
-			Coordinate c = vectorAdd(coordinate, step, factor);
 			if (c == null)
 				return null;
 
@@ -576,13 +848,14 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 	protected static final class OrthogonalCoordinate extends Coordinate
 	{
 		final private int[] components;
-		private int hashCode = 0;
+		final private int hashCode;
 
 		private OrthogonalCoordinate(int[] components, String notation)
 		{
 			super(notation);
 			assert components != null : "bla";
 			this.components = components;
+			this.hashCode = Arrays.hashCode(components);
 		}
 
 		@Override
@@ -595,11 +868,7 @@ public class OrthogonalBoardGeometry extends BoardGeometry
 		@Override
 		public final int hashCode()
 		{
-			// FIXME possible race condition?
-			if (this.hashCode == 0)
-				this.hashCode = Arrays.hashCode(components);
-
-			return this.hashCode;
+			return hashCode;
 		}
 	}
 }
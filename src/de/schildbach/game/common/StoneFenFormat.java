@@ -33,43 +33,35 @@ public final class StoneFenFormat
 {
 	public static String format(OrthogonalBoardGeometry geometry, StonePieceSet pieceSet, Board board)
 	{
-		StringBuilder fen = new StringBuilder();
+		int width = geometry.getSize(OrthogonalBoardGeometry.AXIS_WIDTH);
+		StringBuilder fen = new StringBuilder(geometry.getNumCoordinates() + geometry.getSize(OrthogonalBoardGeometry.AXIS_HEIGHT));
 
-		Coordinate lastCoord = null;
+		// coordinates are iterated rank by rank
+		int file = 0;
 		int zeros = 0;
 		for (Iterator<Coordinate> i = geometry.coordinateIterator(); i.hasNext();)
 		{
 			Coordinate c = i.next();
-			if (lastCoord != null && !geometry.isOnSameOrthogonal(OrthogonalBoardGeometry.AXIS_HEIGHT, c, lastCoord))
+			if (file == width)
 			{
 				appendZeros(fen, zeros);
 				fen.append("/");
-				Piece piece = board.getPiece(c);
-				if (piece != null)
-				{
-					appendPiece(fen, piece, pieceSet);
-					zeros = 0;
-				}
-				else
-				{
-					zeros = 1;
-				}
+				zeros = 0;
+				file = 0;
+			}
+
+			Piece piece = board.getPiece(c);
+			if (piece != null)
+			{
+				appendZeros(fen, zeros);
+				zeros = 0;
+				appendPiece(fen, piece, pieceSet);
 			}
 			else
 			{
-				Piece piece = board.getPiece(c);
-				if (piece != null)
-				{
-					appendZeros(fen, zeros);
-					zeros = 0;
-					appendPiece(fen, piece, pieceSet);
-				}
-				else
-				{
-					zeros++;
-				}
+				zeros++;
 			}
-			lastCoord = c;
+			file++;
 		}
 		appendZeros(fen, zeros);
 
@@ -84,16 +76,15 @@ public final class StoneFenFormat
 
 	private static void appendZeros(StringBuilder fen, int zeroes)
 	{
-		if (zeroes > 0)
+		// digits are parsed one by one, so longer runs are split
+		while (zeroes >= 10)
 		{
-			if (zeroes >= 10)
-			{
-				int prefix = zeroes / 2;
-				fen.append(prefix);
-				zeroes -= prefix;
-			}
-			fen.append(zeroes);
+			int prefix = Math.min(zeroes / 2, 9);
+			fen.append(prefix);
+			zeroes -= prefix;
 		}
+		if (zeroes > 0)
+			fen.append(zeroes);
 	}
 
 	public static void parse(OrthogonalBoardGeometry geometry, PieceSet pieceSet, String fen, Board board)
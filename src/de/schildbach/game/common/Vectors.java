@@ -0,0 +1,108 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.common;
+
+import java.util.Arrays;
+
+/**
+ * Immutable list of vectors, as handed out by geometries for piece movement. Instances are computed once and shared,
+ * so walking them does not allocate. Vectors are only given out as copies, so no caller can alter them for others.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class Vectors
+{
+	private final int[][] vectors;
+
+	public Vectors(int[]... vectors)
+	{
+		this.vectors = new int[vectors.length][];
+		for (int i = 0; i < vectors.length; i++)
+			this.vectors[i] = vectors[i].clone();
+	}
+
+	/**
+	 * @return vectors of all the given lists, in order
+	 */
+	public static Vectors concat(Vectors... lists)
+	{
+		int length = 0;
+		for (Vectors list : lists)
+			length += list.size();
+
+		int[][] vectors = new int[length][];
+		int i = 0;
+		for (Vectors list : lists)
+			for (int[] vector : list.vectors)
+				vectors[i++] = vector;
+
+		return new Vectors(vectors);
+	}
+
+	public int size()
+	{
+		return vectors.length;
+	}
+
+	/**
+	 * @return copy of the vector at the given index
+	 */
+	public int[] get(int index)
+	{
+		return vectors[index].clone();
+	}
+
+	/**
+	 * @return component of the vector at the given index, or 0 if the vector has less dimensions
+	 */
+	public int component(int index, int axis)
+	{
+		int[] vector = vectors[index];
+		return axis < vector.length ? vector[axis] : 0;
+	}
+
+	/**
+	 * @return vector at the given index; the array may not be altered
+	 */
+	int[] vector(int index)
+	{
+		return vectors[index];
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (o == this)
+			return true;
+		if (!(o instanceof Vectors))
+			return false;
+		return Arrays.deepEquals(this.vectors, ((Vectors) o).vectors);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Arrays.deepHashCode(vectors);
+	}
+
+	@Override
+	public String toString()
+	{
+		return Arrays.deepToString(vectors);
+	}
+}
@@ -25,6 +25,7 @@ import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.Piece;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 
 /**
  * @author Andreas Schildbach
@@ -38,14 +39,14 @@ public abstract class ChessLikePiece extends Piece implements Serializable
 
 	public abstract Set<Coordinate> getPotentialTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source);
 
-	protected final Set<Coordinate> getPotentialJumpTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source, Set<int[]> jumpVectors,
+	protected final Set<Coordinate> getPotentialJumpTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source, Vectors jumpVectors,
 			int factor, boolean friendlyCapture)
 	{
 		Set<Coordinate> targets = new HashSet<Coordinate>();
 
-		for (int[] vector : jumpVectors)
+		for (int i = 0; i < jumpVectors.size(); i++)
 		{
-			Coordinate target = geometry.vectorAdd(source, vector, factor);
+			Coordinate target = geometry.vectorAdd(source, jumpVectors, i, factor);
 			if (target != null)
 			{
 				Piece piece = board.getPiece(target);
@@ -77,13 +78,13 @@ public abstract class ChessLikePiece extends Piece implements Serializable
 	}
 
 	protected final Set<Coordinate> getPotentialPeacefulJumpTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source,
-			Set<int[]> jumpVectors, int factor)
+			Vectors jumpVectors, int factor)
 	{
 		Set<Coordinate> targets = new HashSet<Coordinate>();
 
-		for (int[] vector : jumpVectors)
+		for (int i = 0; i < jumpVectors.size(); i++)
 		{
-			Coordinate target = geometry.vectorAdd(source, vector, factor);
+			Coordinate target = geometry.vectorAdd(source, jumpVectors, i, factor);
 			if (target != null)
 			{
 				Piece piece = board.getPiece(target);
@@ -97,13 +98,13 @@ public abstract class ChessLikePiece extends Piece implements Serializable
 		return targets;
 	}
 
-	protected final Set<Coordinate> getPotentialCaptureTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source, Set<int[]> jumpVectors)
+	protected final Set<Coordinate> getPotentialCaptureTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source, Vectors jumpVectors)
 	{
 		Set<Coordinate> targets = new HashSet<Coordinate>();
 
-		for (int[] vector : jumpVectors)
+		for (int i = 0; i < jumpVectors.size(); i++)
 		{
-			Coordinate target = geometry.vectorAdd(source, vector, 1);
+			Coordinate target = geometry.vectorAdd(source, jumpVectors, i, 1);
 			if (target != null)
 			{
 				Piece piece = board.getPiece(target);
@@ -121,22 +122,49 @@ public abstract class ChessLikePiece extends Piece implements Serializable
 	 * Convenience method.
 	 */
 	protected final Set<Coordinate> getPotentialMoveTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source,
-			Set<int[]> movementVectors)
+			Vectors movementVectors)
 	{
 		// "-1" is important because of presumed loop optimizer bug in 64bit JRE (unit tests will fail)
 		return getPotentialMoveTargets(geometry, board, source, movementVectors, Integer.MAX_VALUE-1);
 	}
 
 	protected final Set<Coordinate> getPotentialMoveTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source,
-			Set<int[]> movementVectors, int maxDistance)
+			Vectors movementVectors, int maxDistance)
 	{
 		Set<Coordinate> targets = new HashSet<Coordinate>();
 
-		for (int[] movementVector : movementVectors)
+		for (int i = 0; i < movementVectors.size(); i++)
 		{
+			int direction = geometry.directionIndex(movementVectors, i);
+			if (direction >= 0)
+			{
+				// follow precomputed ray
+				Coordinate[] ray = geometry.ray(source, direction);
+				int length = Math.min(ray.length, maxDistance);
+				for (int r = 0; r < length; r++)
+				{
+					Coordinate target = ray[r];
+					Piece piece = board.getPiece(target);
+					if (piece == null)
+					{
+						targets.add(target);
+					}
+					else
+					{
+						if (piece.getColor() != this.getColor())
+						{
+							targets.add(target);
+						}
+						break;
+					}
+				}
+
+				continue;
+			}
+
 			for (int r = 1; r <= maxDistance; r++)
 			{
-				Coordinate target = geometry.vectorAdd(source, movementVector, r);
+				Coordinate target = geometry.vectorAdd(source, movementVectors, i, r);
 				if (target != null)
 				{
 					Piece piece = board.getPiece(target);
@@ -24,6 +24,7 @@ import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.Piece;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 
 /**
  * @author Andreas Schildbach
@@ -38,24 +39,24 @@ public abstract class DirectionalPiece extends ChessLikePiece
 	@Override
 	public final Set<Coordinate> getPotentialTargets(ChessBoardLikeGeometry geometry, Board board, Coordinate source)
 	{
-		Set<int[]> moveVectors = moveVectors(geometry, source);
+		Vectors moveVectors = moveVectors(geometry, source);
 
-		Set<int[]> captureVectors = captureVectors(geometry, source);
+		Vectors captureVectors = captureVectors(geometry, source);
 
 		Set<Coordinate> targets = new HashSet<Coordinate>();
 
-		for (int[] v : moveVectors)
+		for (int i = 0; i < moveVectors.size(); i++)
 		{
-			Coordinate target = geometry.vectorAdd(source, v, 1);
+			Coordinate target = geometry.vectorAdd(source, moveVectors, i, 1);
 			if (target != null && board.getPiece(target) == null)
 			{
 				targets.add(target);
 			}
 		}
 
-		for (int[] v : captureVectors)
+		for (int i = 0; i < captureVectors.size(); i++)
 		{
-			Coordinate target = geometry.vectorAdd(source, v, 1);
+			Coordinate target = geometry.vectorAdd(source, captureVectors, i, 1);
 			if (target != null)
 			{
 				Piece piece = board.getPiece(target);
@@ -70,11 +71,11 @@ public abstract class DirectionalPiece extends ChessLikePiece
 	@Override
 	public final boolean isThreateningSquare(ChessBoardLikeGeometry geometry, Board board, Coordinate source, Coordinate target)
 	{
-		Set<int[]> captureVectors = captureVectors(geometry, source);
+		Vectors captureVectors = captureVectors(geometry, source);
 
-		for (int[] v : captureVectors)
+		for (int i = 0; i < captureVectors.size(); i++)
 		{
-			Coordinate captureTarget = geometry.vectorAdd(source, v, 1);
+			Coordinate captureTarget = geometry.vectorAdd(source, captureVectors, i, 1);
 			if (captureTarget != null && target.equals(captureTarget))
 				return true;
 		}
@@ -82,7 +83,13 @@ public abstract class DirectionalPiece extends ChessLikePiece
 		return false;
 	}
 
-	protected abstract Set<int[]> captureVectors(ChessBoardLikeGeometry geometry, Coordinate source);
+	/**
+	 * @return capture vectors
+	 */
+	protected abstract Vectors captureVectors(ChessBoardLikeGeometry geometry, Coordinate source);
 
-	protected abstract Set<int[]> moveVectors(ChessBoardLikeGeometry geometry, Coordinate source);
+	/**
+	 * @return move vectors
+	 */
+	protected abstract Vectors moveVectors(ChessBoardLikeGeometry geometry, Coordinate source);
 }
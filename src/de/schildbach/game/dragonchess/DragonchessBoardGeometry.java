@@ -17,14 +17,12 @@
 
 package de.schildbach.game.dragonchess;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
 import de.schildbach.game.common.CoordinateFieldNotations;
 import de.schildbach.game.common.OrthogonalBoardGeometry;
 import de.schildbach.game.common.OrthogonalFieldNotations;
+import de.schildbach.game.common.Vectors;
 
 /**
  * @author Andreas Schildbach
@@ -38,12 +36,52 @@ public class DragonchessBoardGeometry extends ChessBoardLikeGeometry
 	private static final int[] DOWN = { 0, 0, 1 };
 	private static final int[] UP = { 0, 0, -1 };
 
+	private static final Vectors UP_DOWN_VECTORS = new Vectors(UP, DOWN);
+
+	private static final Vectors UP_VECTORS = new Vectors(UP);
+
+	private static final Vectors DOWN_VECTORS = new Vectors(DOWN);
+
+	private static final Vectors NO_VECTORS = new Vectors();
+
+	private static final Vectors DIAGONAL_VECTORS_3D_DOWN = new Vectors(new int[][] { { 1, 1, 1 }, { 1, -1, 1 }, { -1, -1, 1 }, { -1, 1, 1 } });
+
+	private static final Vectors DIAGONAL_VECTORS_3D_UP = new Vectors(new int[][] { { 1, 1, -1 }, { 1, -1, -1 }, { -1, -1, -1 }, { -1, 1, -1 } });
+
+	private static final Vectors DIAGONAL_VECTORS_3D = Vectors.concat(DIAGONAL_VECTORS_3D_DOWN, DIAGONAL_VECTORS_3D_UP);
+
+	private static final Vectors KNIGHT_VECTORS_3D = new Vectors(new int[][] { { 0, 1, 2 }, { 0, 2, 1 }, { 0, 2, -1 }, { 0, 1, -2 }, { 0, -1, -2 },
+			{ 0, -2, -1 }, { 0, -2, 1 }, { 0, -1, 2 }, { 1, 0, 2 }, { 2, 0, 1 }, { 2, 0, -1 }, { 1, 0, -2 }, { -1, 0, -2 }, { -2, 0, -1 },
+			{ -2, 0, 1 }, { -1, 0, 2 } });
+
+	private static final Vectors GRIFFIN_VECTORS = new Vectors(new int[][] { { 2, 3 }, { 3, 2 }, { 3, -2 }, { 2, -3 }, { -2, -3 }, { -3, -2 },
+			{ -3, 2 }, { -2, 3 } });
+
 	private static final OrthogonalFieldNotations FIELD_NOTATIONS = new CoordinateFieldNotations(new int[] { OrthogonalBoardGeometry.AXIS_LAYER,
 			OrthogonalBoardGeometry.AXIS_WIDTH, OrthogonalBoardGeometry.AXIS_HEIGHT }, '1', 'a', '1');
 
+	/** by color */
+	private final Vectors[] basiliskMoveVectors = new Vectors[2];
+	/** by color and ground */
+	private final Vectors[][] dwarfMoveVectors = new Vectors[2][2];
+	/** by color and underworld */
+	private final Vectors[][] dwarfCaptureVectors = new Vectors[2][2];
+	/** by color */
+	private final Vectors[] sylphCaptureVectors = new Vectors[2];
+
 	private DragonchessBoardGeometry(int width, int height, int layers)
 	{
 		super(new int[] { width, height, layers }, FIELD_NOTATIONS);
+
+		for (int color = 0; color < 2; color++)
+		{
+			basiliskMoveVectors[color] = Vectors.concat(forwardFacingVectors2D(color), backwardDirVectors(color));
+			dwarfMoveVectors[color][0] = forwardOrthogonalVectors2D(color);
+			dwarfMoveVectors[color][1] = Vectors.concat(forwardOrthogonalVectors2D(color), DOWN_VECTORS);
+			dwarfCaptureVectors[color][0] = forwardDiagonalVectors2D(color);
+			dwarfCaptureVectors[color][1] = Vectors.concat(forwardDiagonalVectors2D(color), UP_VECTORS);
+			sylphCaptureVectors[color] = Vectors.concat(forwardDirVectors(color), DOWN_VECTORS);
+		}
 	}
 
 	public static DragonchessBoardGeometry instance(int width, int height, int layers)
@@ -56,12 +94,28 @@ public class DragonchessBoardGeometry extends ChessBoardLikeGeometry
 		return instance(12, 8, 3);
 	}
 
-	public Set<int[]> upDownVector()
+	/**
+	 * @return up and down vectors
+	 */
+	public Vectors upDownVector()
+	{
+		return UP_DOWN_VECTORS;
+	}
+
+	/**
+	 * @return up vector as the only element
+	 */
+	public Vectors upVectors()
+	{
+		return UP_VECTORS;
+	}
+
+	/**
+	 * @return down vector as the only element
+	 */
+	public Vectors downVectors()
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(UP);
-		vectors.add(DOWN);
-		return vectors;
+		return DOWN_VECTORS;
 	}
 
 	public int[] up()
@@ -74,24 +128,51 @@ public class DragonchessBoardGeometry extends ChessBoardLikeGeometry
 		return DOWN;
 	}
 
-	public Set<int[]> diagonalVectors3D(boolean up, boolean down)
+	/**
+	 * @return forward facing vectors and the backward vector
+	 */
+	public Vectors basiliskMoveVectors(int color)
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		if (down)
-		{
-			vectors.add(new int[] { 1, 1, 1 });
-			vectors.add(new int[] { 1, -1, 1 });
-			vectors.add(new int[] { -1, -1, 1 });
-			vectors.add(new int[] { -1, 1, 1 });
-		}
-		if (up)
-		{
-			vectors.add(new int[] { 1, 1, -1 });
-			vectors.add(new int[] { 1, -1, -1 });
-			vectors.add(new int[] { -1, -1, -1 });
-			vectors.add(new int[] { -1, 1, -1 });
-		}
-		return vectors;
+		return basiliskMoveVectors[color];
+	}
+
+	/**
+	 * @return vectors not facing backward, plus down if on ground
+	 */
+	public Vectors dwarfMoveVectors(int color, boolean ground)
+	{
+		return dwarfMoveVectors[color][ground ? 1 : 0];
+	}
+
+	/**
+	 * @return forward diagonal vectors, plus up if in underworld
+	 */
+	public Vectors dwarfCaptureVectors(int color, boolean underworld)
+	{
+		return dwarfCaptureVectors[color][underworld ? 1 : 0];
+	}
+
+	/**
+	 * @return forward and down vectors
+	 */
+	public Vectors sylphCaptureVectors(int color)
+	{
+		return sylphCaptureVectors[color];
+	}
+
+	/**
+	 * @return diagonal vectors pointing to other layers
+	 */
+	public Vectors diagonalVectors3D(boolean up, boolean down)
+	{
+		if (up && down)
+			return DIAGONAL_VECTORS_3D;
+		else if (up)
+			return DIAGONAL_VECTORS_3D_UP;
+		else if (down)
+			return DIAGONAL_VECTORS_3D_DOWN;
+		else
+			return NO_VECTORS;
 	}
 
 	/**
@@ -102,26 +183,12 @@ public class DragonchessBoardGeometry extends ChessBoardLikeGeometry
 		return diagonalDir(c1, c2, 3, maxDistance);
 	}
 
-	public Set<int[]> knightVectors3D()
-	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(new int[] { 0, 1, 2 });
-		vectors.add(new int[] { 0, 2, 1 });
-		vectors.add(new int[] { 0, 2, -1 });
-		vectors.add(new int[] { 0, 1, -2 });
-		vectors.add(new int[] { 0, -1, -2 });
-		vectors.add(new int[] { 0, -2, -1 });
-		vectors.add(new int[] { 0, -2, 1 });
-		vectors.add(new int[] { 0, -1, 2 });
-		vectors.add(new int[] { 1, 0, 2 });
-		vectors.add(new int[] { 2, 0, 1 });
-		vectors.add(new int[] { 2, 0, -1 });
-		vectors.add(new int[] { 1, 0, -2 });
-		vectors.add(new int[] { -1, 0, -2 });
-		vectors.add(new int[] { -2, 0, -1 });
-		vectors.add(new int[] { -2, 0, 1 });
-		vectors.add(new int[] { -1, 0, 2 });
-		return vectors;
+	/**
+	 * @return knight vectors crossing layers
+	 */
+	public Vectors knightVectors3D()
+	{
+		return KNIGHT_VECTORS_3D;
 	}
 
 	public boolean knight3D(Coordinate source, Coordinate target)
@@ -150,18 +217,12 @@ public class DragonchessBoardGeometry extends ChessBoardLikeGeometry
 		return true;
 	}
 
-	public Set<int[]> griffinVectors()
+	/**
+	 * @return griffin vectors
+	 */
+	public Vectors griffinVectors()
 	{
-		Set<int[]> vectors = new HashSet<int[]>();
-		vectors.add(new int[] { 2, 3 });
-		vectors.add(new int[] { 3, 2 });
-		vectors.add(new int[] { 3, -2 });
-		vectors.add(new int[] { 2, -3 });
-		vectors.add(new int[] { -2, -3 });
-		vectors.add(new int[] { -3, -2 });
-		vectors.add(new int[] { -3, 2 });
-		vectors.add(new int[] { -2, 3 });
-		return vectors;
+		return GRIFFIN_VECTORS;
 	}
 
 	public boolean griffin(Coordinate c1, Coordinate c2)
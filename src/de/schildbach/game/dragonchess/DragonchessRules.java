@@ -98,9 +98,7 @@ public class DragonchessRules extends ChessLikeRules
 
 	public DragonchessRules()
 	{
-		super(DragonchessBoardGeometry.instance(), new GenericPieceSet(PIECES, COLORS));
-
-		setCheckVulnerablePiece(King.class);
+		super(DragonchessBoardGeometry.instance(), new GenericPieceSet(PIECES, COLORS), King.class, null);
 	}
 
 	@Override
@@ -457,6 +455,12 @@ public class DragonchessRules extends ChessLikeRules
 		return true;
 	}
 
+	@Override
+	protected boolean looksLikeSimpleMove(ChessLikeMove move, Board board)
+	{
+		return !looksLikeCaptureFromAfar(move, board);
+	}
+
 	@Override
 	protected boolean looksLikeCapture(ChessLikeMove move, Board board)
 	{
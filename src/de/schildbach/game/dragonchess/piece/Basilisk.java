@@ -17,11 +17,11 @@
 
 package de.schildbach.game.dragonchess.piece;
 
-import java.util.Set;
-
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.DirectionalPiece;
+import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
 
 /**
  * Note: The 'freezing' ability of the Basilisk is not handled by this class, it shall be handled upstream.
@@ -36,20 +36,14 @@ public class Basilisk extends DirectionalPiece
 	}
 
 	@Override
-	protected Set<int[]> moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
-		Set<int[]> dirs = captureVectors(geometry, source);
-		dirs.add(geometry.backwardDir(this.getColor()));
-		return dirs;
+		return ((DragonchessBoardGeometry) geometry).basiliskMoveVectors(this.getColor());
 	}
 
 	@Override
-	protected Set<int[]> captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
-		int[] forward = geometry.forwardDir(this.getColor());
-		Set<int[]> dirs = geometry.diagonalVectors2D();
-		geometry.filterFacingDir(dirs, forward, false);
-		dirs.add(forward);
-		return dirs;
+		return geometry.forwardFacingVectors2D(this.getColor());
 	}
 }
@@ -41,11 +41,10 @@ public class Cleric extends ChessLikePiece
 		DragonchessBoardGeometry dragonchessGeometry = (DragonchessBoardGeometry) geometry;
 
 		// movement on all layers
-		Set<int[]> vectors = geometry.orthogonalVectors2D();
-		vectors.addAll(geometry.bidirectional(dragonchessGeometry.up()));
-		vectors.addAll(geometry.diagonalVectors2D());
+		Set<Coordinate> targets = getPotentialJumpTargets(geometry, board, source, geometry.kingVectors2D(), 1, false);
+		targets.addAll(getPotentialJumpTargets(geometry, board, source, dragonchessGeometry.upDownVector(), 1, false));
 
-		return getPotentialJumpTargets(geometry, board, source, vectors, 1, false);
+		return targets;
 	}
 
 	@Override
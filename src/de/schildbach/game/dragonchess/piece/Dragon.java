@@ -17,12 +17,12 @@
 
 package de.schildbach.game.dragonchess.piece;
 
-import java.util.HashSet;
 import java.util.Set;
 
 import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.ChessLikePiece;
 import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
 
@@ -33,6 +33,8 @@ import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
  */
 public class Dragon extends ChessLikePiece
 {
+	private static final Vectors NULL_VECTORS = new Vectors(new int[0]);
+
 	public Dragon(int color)
 	{
 		super(color);
@@ -46,9 +48,7 @@ public class Dragon extends ChessLikePiece
 		Set<Coordinate> targets = getPotentialMoveTargets(geometry, board, source, geometry.diagonalVectors2D());
 		targets.addAll(getPotentialJumpTargets(geometry, board, source, geometry.orthogonalVectors2D(), 1, false));
 		Coordinate down = geometry.vectorAdd(source, dragonchessGeometry.down(), 1);
-		HashSet<int[]> hashSet = new HashSet<int[]>();
-		hashSet.add(new int[] {});
-		targets.addAll(getPotentialCaptureTargets(geometry, board, down, hashSet));
+		targets.addAll(getPotentialCaptureTargets(geometry, board, down, NULL_VECTORS));
 		targets.addAll(getPotentialCaptureTargets(geometry, board, down, geometry.orthogonalVectors2D()));
 		return targets;
 	}
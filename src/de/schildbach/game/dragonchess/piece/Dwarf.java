@@ -17,10 +17,9 @@
 
 package de.schildbach.game.dragonchess.piece;
 
-import java.util.Set;
-
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.DirectionalPiece;
 import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
 
@@ -35,36 +34,20 @@ public class Dwarf extends DirectionalPiece
 	}
 
 	@Override
-	protected Set<int[]> moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
 		DragonchessBoardGeometry dragonchessGeometry = (DragonchessBoardGeometry) geometry;
 
-		// all layers
-		int[] forward = geometry.forwardDir(this.getColor());
-		Set<int[]> dirs = geometry.orthogonalVectors2D();
-		geometry.filterFacingDir(dirs, forward, true);
-
-		// ground
-		if (dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.GROUND))
-			dirs.add(dragonchessGeometry.down());
-
-		return dirs;
+		// all layers, and down from ground
+		return dragonchessGeometry.dwarfMoveVectors(this.getColor(), dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.GROUND));
 	}
 
 	@Override
-	protected Set<int[]> captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
 		DragonchessBoardGeometry dragonchessGeometry = (DragonchessBoardGeometry) geometry;
 
-		// all layers
-		int[] forward = geometry.forwardDir(this.getColor());
-		Set<int[]> dirs = geometry.diagonalVectors2D();
-		geometry.filterFacingDir(dirs, forward, false);
-
-		// underworld
-		if (dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.UNDERWORLD))
-			dirs.add(dragonchessGeometry.up());
-
-		return dirs;
+		// all layers, and up from underworld
+		return dragonchessGeometry.dwarfCaptureVectors(this.getColor(), dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.UNDERWORLD));
 	}
 }
@@ -22,6 +22,7 @@ import java.util.Set;
 import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.ChessLikePiece;
 import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
 
@@ -46,7 +47,7 @@ public class Hero extends ChessLikePiece
 		// additional movement on ground
 		if (dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.GROUND))
 		{
-			Set<int[]> diagonalVectors = geometry.diagonalVectors2D();
+			Vectors diagonalVectors = geometry.diagonalVectors2D();
 			moves.addAll(getPotentialJumpTargets(geometry, board, source, diagonalVectors, 1, false));
 			moves.addAll(getPotentialJumpTargets(geometry, board, source, diagonalVectors, 2, false));
 		}
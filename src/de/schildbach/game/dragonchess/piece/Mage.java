@@ -22,6 +22,7 @@ import java.util.Set;
 import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.ChessLikePiece;
 import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
 
@@ -46,8 +47,7 @@ public class Mage extends ChessLikePiece
 		// movement specific to layers
 		if (dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.GROUND))
 		{
-			Set<int[]> vectors = geometry.orthogonalVectors2D();
-			vectors.addAll(geometry.diagonalVectors2D());
+			Vectors vectors = geometry.kingVectors2D();
 			targets.addAll(getPotentialMoveTargets(geometry, board, source, vectors));
 		}
 		else
@@ -23,6 +23,7 @@ import de.schildbach.game.Board;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
 import de.schildbach.game.common.OrthogonalBoardGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.ChessLikePiece;
 import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
 
@@ -43,8 +44,7 @@ public class Paladin extends ChessLikePiece
 
 		// movement on all layers
 		Set<Coordinate> targets = getPotentialJumpTargets(geometry, board, source, dragonchessGeometry.knightVectors3D(), 1, false);
-		Set<int[]> vectors = geometry.orthogonalVectors2D();
-		vectors.addAll(geometry.diagonalVectors2D());
+		Vectors vectors = geometry.kingVectors2D();
 		targets.addAll(getPotentialJumpTargets(geometry, board, source, vectors, 1, false));
 
 		// ground movement
@@ -17,11 +17,9 @@
 
 package de.schildbach.game.dragonchess.piece;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.common.ChessBoardLikeGeometry;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.DirectionalPiece;
 import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
 
@@ -32,49 +30,33 @@ import de.schildbach.game.dragonchess.DragonchessBoardGeometry;
  */
 public class Sylph extends DirectionalPiece
 {
+	private static final Vectors NO_VECTORS = new Vectors();
+
 	public Sylph(int color)
 	{
 		super(color);
 	}
 
 	@Override
-	protected Set<int[]> moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors moveVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
 		DragonchessBoardGeometry dragonchessGeometry = (DragonchessBoardGeometry) geometry;
 
-		Set<int[]> dirs;
-
 		if (dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.SKY))
-		{
-			int[] forward = geometry.forwardDir(this.getColor());
-			dirs = geometry.diagonalVectors2D();
-			geometry.filterFacingDir(dirs, forward, false);
-		}
+			return geometry.forwardDiagonalVectors2D(this.getColor());
 		else if (dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.GROUND))
-		{
-			dirs = new HashSet<int[]>();
-			dirs.add(dragonchessGeometry.up());
-		}
+			return dragonchessGeometry.upVectors();
 		else
-		{
 			throw new IllegalStateException();
-		}
-
-		return dirs;
 	}
 
 	@Override
-	protected Set<int[]> captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
+	protected Vectors captureVectors(ChessBoardLikeGeometry geometry, Coordinate source)
 	{
-		Set<int[]> dirs = new HashSet<int[]>();
-
 		DragonchessBoardGeometry dragonchessGeometry = (DragonchessBoardGeometry) geometry;
 		if (dragonchessGeometry.isLayer(source, DragonchessBoardGeometry.SKY))
-		{
-			dirs.add(geometry.forwardDir(this.getColor()));
-			dirs.add(dragonchessGeometry.down());
-		}
-
-		return dirs;
+			return dragonchessGeometry.sylphCaptureVectors(this.getColor());
+		else
+			return NO_VECTORS;
 	}
 }
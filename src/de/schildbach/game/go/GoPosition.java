@@ -21,6 +21,7 @@ import java.util.Arrays;
 
 import de.schildbach.game.Board;
 import de.schildbach.game.GamePosition;
+import de.schildbach.game.LongMultiset;
 
 /**
  * @author Andreas Schildbach
@@ -28,6 +29,9 @@ import de.schildbach.game.GamePosition;
 public class GoPosition extends GamePosition
 {
 	private int[] captureCount = new int[2];
+	/** Zobrist keys of the boards left by all stones placed so far, for superko detection */
+	private LongMultiset previousBoardKeys = new LongMultiset();
+	private transient GoStrings strings;
 
 	public GoPosition(Board board)
 	{
@@ -47,6 +51,38 @@ public class GoPosition extends GamePosition
 	public void addCaptureCount(int color, int value)
 	{
 		this.captureCount[color] += value;
+		modified();
+	}
+
+	/**
+	 * @return true if a board with the given Zobrist key has been left by an earlier move
+	 */
+	public boolean isPreviousBoard(long boardKey)
+	{
+		return previousBoardKeys.count(boardKey) > 0;
+	}
+
+	void addPreviousBoard(long boardKey)
+	{
+		previousBoardKeys.add(boardKey);
+		modified();
+	}
+
+	void removePreviousBoard(long boardKey)
+	{
+		previousBoardKeys.remove(boardKey);
+		modified();
+	}
+
+	/**
+	 * @return strings of the board for the given rules, rebuilt if the board has been modified behind their back
+	 */
+	GoStrings strings(GoRules rules)
+	{
+		if (strings == null || !strings.isFor(rules, getBoard()))
+			strings = new GoStrings(rules, getBoard());
+
+		return strings;
 	}
 
 	public boolean hasAnythingBeenCaptured()
@@ -89,6 +125,8 @@ public class GoPosition extends GamePosition
 	{
 		GoPosition clone = (GoPosition) super.clone();
 		clone.captureCount = this.captureCount.clone();
+		clone.previousBoardKeys = this.previousBoardKeys.clone();
+		clone.strings = null;
 		return clone;
 	}
 }
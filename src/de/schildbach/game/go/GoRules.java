@@ -17,31 +17,32 @@
 
 package de.schildbach.game.go;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.lang.mutable.MutableInt;
-
 import de.schildbach.game.Board;
 import de.schildbach.game.BoardGeometry;
 import de.schildbach.game.Coordinate;
 import de.schildbach.game.GameMove;
 import de.schildbach.game.GamePosition;
 import de.schildbach.game.GameRules;
+import de.schildbach.game.GameStatus;
 import de.schildbach.game.MicroOperation;
 import de.schildbach.game.Piece;
-import de.schildbach.game.PieceSet;
+import de.schildbach.game.Zobrist;
 import de.schildbach.game.common.BigCoordinateFieldNotations;
 import de.schildbach.game.common.NextPlayerOperation;
 import de.schildbach.game.common.OrthogonalBoardGeometry;
 import de.schildbach.game.common.SingleCoordinateMove;
 import de.schildbach.game.common.StoneFenFormat;
+import de.schildbach.game.common.Vectors;
 import de.schildbach.game.common.piece.StonePieceSet;
 import de.schildbach.game.exception.IllegalMoveException;
 import de.schildbach.game.exception.ParseException;
@@ -56,29 +57,115 @@ public class GoRules extends GameRules
 		CAPTURE
 	}
 
-	private boolean removeCaptured = true;
-	private boolean finishOnCapture = false;
+	private final int size;
+	private final boolean removeCaptured;
+	private final boolean finishOnCapture;
+	private final Coordinate[] coordinates;
+	private final int[][] neighbourKeys;
+	private final SingleCoordinateMove[] moves;
+	private final long[][] stoneKeys;
 
 	public static final String PASS_NOTATION = "-";
+	public static final int DEFAULT_SIZE = 9;
 
 	public GoRules(Variant variant)
 	{
-		super(new OrthogonalBoardGeometry(new int[] { 9, 9 }, new BigCoordinateFieldNotations()), new StonePieceSet());
+		this(variant, DEFAULT_SIZE);
+	}
+
+	/**
+	 * @param size
+	 *            width and height of the board, usually 9, 13 or 19
+	 */
+	public GoRules(Variant variant, int size)
+	{
+		super(geometry(size), new StonePieceSet());
 
-		if (variant == null)
+		this.size = size;
+		removeCaptured = variant != Variant.CAPTURE;
+		finishOnCapture = variant == Variant.CAPTURE;
+
+		// precompute orthogonal neighbours by key
+		OrthogonalBoardGeometry geometry = (OrthogonalBoardGeometry) getBoardGeometry();
+		int numCoordinates = geometry.getNumCoordinates();
+		coordinates = new Coordinate[numCoordinates];
+		for (Iterator<Coordinate> i = geometry.coordinateIterator(); i.hasNext();)
 		{
+			Coordinate coordinate = i.next();
+			coordinates[coordinate.getKey()] = coordinate;
 		}
-		else if (variant == Variant.CAPTURE)
+		Vectors vectors = geometry.orthogonalVectors();
+		neighbourKeys = new int[numCoordinates][];
+		for (int key = 0; key < numCoordinates; key++)
 		{
-			removeCaptured = false;
-			finishOnCapture = true;
+			int[] neighbours = new int[vectors.size()];
+			int count = 0;
+			for (int i = 0; i < vectors.size(); i++)
+			{
+				int neighbour = geometry.neighbourKey(key, geometry.directionIndex(vectors, i));
+				if (neighbour != -1)
+					neighbours[count++] = neighbour;
+			}
+			neighbourKeys[key] = Arrays.copyOf(neighbours, count);
 		}
-		else
+
+		// moves are immutable, so they can be shared by all positions
+		moves = new SingleCoordinateMove[numCoordinates];
+		for (int key = 0; key < numCoordinates; key++)
+			moves[key] = new SingleCoordinateMove(coordinates[key]);
+
+		// Zobrist keys of stones by color and key
+		stoneKeys = new long[2][numCoordinates];
+		for (int color = 0; color < 2; color++)
 		{
-			throw new IllegalArgumentException("unknown variant: " + variant);
+			long seed = stone(color).getZobristSeed();
+			for (int key = 0; key < numCoordinates; key++)
+				stoneKeys[color][key] = Zobrist.key(seed, key);
 		}
 	}
 
+	private static OrthogonalBoardGeometry geometry(int size)
+	{
+		if (size < 2)
+			throw new IllegalArgumentException("illegal board size: " + size);
+
+		return new OrthogonalBoardGeometry(new int[] { size, size }, new BigCoordinateFieldNotations());
+	}
+
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * @return Zobrist key of a stone of the given color on the given key
+	 */
+	long stoneKey(int color, int key)
+	{
+		return stoneKeys[color][key];
+	}
+
+	private Piece stone(int color)
+	{
+		return getPieceSet().getPiece(color == 0 ? "b" : "w");
+	}
+
+	/**
+	 * @return coordinates by key; the array may not be altered
+	 */
+	Coordinate[] coordinates()
+	{
+		return coordinates;
+	}
+
+	/**
+	 * @return keys of the orthogonal neighbours of the given key; the array may not be altered
+	 */
+	int[] neighbourKeys(int key)
+	{
+		return neighbourKeys[key];
+	}
+
 	protected boolean getRemoveCaptured()
 	{
 		return removeCaptured;
@@ -123,7 +210,7 @@ public class GoRules extends GameRules
 	public GameMove parseMove(String moveString, Locale locale, GamePosition position, Board initialBoard)
 	{
 		GoPosition goPosition = (GoPosition) position;
-		if (goPosition.hasAnythingBeenCaptured())
+		if (finishOnCapture && goPosition.hasAnythingBeenCaptured())
 			throw new ParseException(moveString, "move not allowed, game already finished");
 
 		if (moveString.equals(PASS_NOTATION))
@@ -131,19 +218,23 @@ public class GoRules extends GameRules
 
 		BoardGeometry geometry = getBoardGeometry();
 		Coordinate coordinate = geometry.locateCoordinate(moveString);
+		if (coordinate == null)
+			throw new ParseException(moveString, "unknown coordinate");
 
 		if (goPosition.getBoard().getPiece(coordinate) != null)
 			throw new ParseException(moveString, "move not allowed, square not empty");
 
-		// TODO further checks, as rules evolve
+		if (removeCaptured && repeatsBoard(goPosition, goPosition.strings(this), coordinate.getKey()))
+			throw new ParseException(moveString, "move not allowed, repeats an earlier board");
 
-		return new SingleCoordinateMove(coordinate);
+		return moves[coordinate.getKey()];
 	}
 
 	@Override
 	protected GameMove unmarshalMove(String notation) throws ParseException
 	{
-		return new SingleCoordinateMove(getBoardGeometry().locateCoordinate(notation));
+		Coordinate coordinate = getBoardGeometry().locateCoordinate(notation);
+		return coordinate != null ? moves[coordinate.getKey()] : SingleCoordinateMove.PASS;
 	}
 
 	@Override
@@ -152,20 +243,29 @@ public class GoRules extends GameRules
 		return getAllowedMoves(gamePosition);
 	}
 
+	@Override
+	public boolean hasLegalMove(GamePosition gamePosition, Board initialBoard)
+	{
+		// passing is allowed until the game is finished
+		return !finishOnCapture || !((GoPosition) gamePosition).hasAnythingBeenCaptured();
+	}
+
 	private Collection<? extends GameMove> getAllowedMoves(GamePosition position)
 	{
 		GoPosition goPosition = (GoPosition) position;
 		Board board = position.getBoard();
 
-		Set<SingleCoordinateMove> allowedMoves = new HashSet<SingleCoordinateMove>();
+		List<SingleCoordinateMove> allowedMoves = new ArrayList<SingleCoordinateMove>(moves.length + 1);
 
 		// is game already finished?
 		if (!finishOnCapture || !goPosition.hasAnythingBeenCaptured())
 		{
+			GoStrings strings = removeCaptured ? goPosition.strings(this) : null;
 			for (Coordinate coordinate : board.locateEmptyFields())
 			{
-				SingleCoordinateMove move = new SingleCoordinateMove(coordinate);
-				allowedMoves.add(move);
+				int key = coordinate.getKey();
+				if (strings == null || !repeatsBoard(goPosition, strings, key))
+					allowedMoves.add(moves[key]);
 			}
 
 			allowedMoves.add(SingleCoordinateMove.PASS);
@@ -174,6 +274,98 @@ public class GoRules extends GameRules
 		return allowedMoves;
 	}
 
+	/**
+	 * Determines if placing a stone of the active player on the given empty field would recreate the current or an
+	 * earlier board (positional superko). The Zobrist key of the resulting board is derived from the strings, without
+	 * executing the move.
+	 */
+	private boolean repeatsBoard(GoPosition position, GoStrings strings, int key)
+	{
+		Board board = position.getBoard();
+		int color = position.getActivePlayerIndex();
+		int[] neighbours = neighbourKeys[key];
+		int numNeighbours = neighbours.length;
+
+		// look up neighbouring strings once, -1 for empty fields
+		int[] roots = new int[numNeighbours];
+		int[] colors = new int[numNeighbours];
+		boolean liberty = false;
+		for (int i = 0; i < numNeighbours; i++)
+		{
+			Piece piece = board.getPiece(coordinates[neighbours[i]]);
+			if (piece != null)
+			{
+				roots[i] = strings.find(neighbours[i]);
+				colors[i] = piece.getColor();
+			}
+			else
+			{
+				roots[i] = -1;
+				liberty = true;
+			}
+		}
+
+		long capturedKey = 0;
+		long ownKey = 0;
+		boolean captures = false;
+		for (int i = 0; i < numNeighbours; i++)
+		{
+			int root = roots[i];
+			if (root == -1)
+				continue;
+
+			// count adjacencies of the string to the field, skipping strings already seen
+			int adjacencies = 1;
+			boolean seen = false;
+			for (int j = 0; j < numNeighbours; j++)
+			{
+				if (j != i && roots[j] == root)
+				{
+					if (j < i)
+						seen = true;
+					adjacencies++;
+				}
+			}
+			if (seen)
+				continue;
+
+			boolean lastLiberty = strings.pseudoLiberties(root) == adjacencies;
+			if (colors[i] != color)
+			{
+				if (lastLiberty)
+				{
+					capturedKey ^= strings.zobristKey(root);
+					captures = true;
+				}
+			}
+			else
+			{
+				if (lastLiberty)
+					ownKey ^= strings.zobristKey(root);
+				else
+					liberty = true;
+			}
+		}
+
+		// without any capture so far, boards only grow
+		if (!captures && liberty && !position.hasAnythingBeenCaptured())
+			return false;
+
+		long boardKey = board.getZobristKey() ^ capturedKey;
+		if (captures || liberty)
+			boardKey ^= stoneKeys[color][key];
+		else
+			boardKey ^= ownKey; // suicide
+
+		return boardKey == board.getZobristKey() || position.isPreviousBoard(boardKey);
+	}
+
+	@Override
+	public void parseBoard(Board board, String notation)
+	{
+		StoneFenFormat.parse((OrthogonalBoardGeometry) getBoardGeometry(), getPieceSet(), notation, board);
+	}
+
 	@Override
 	public final String formatBoard(Board board)
 	{
@@ -200,32 +392,48 @@ public class GoRules extends GameRules
 	@Override
 	public boolean isFinished(GamePosition position, Board initialBoard)
 	{
-		return isDraw(position) || isWin(position);
+		return status(position, initialBoard).isFinished();
 	}
 
 	@Override
 	public float[] points(GamePosition position, Board initialBoard)
 	{
-		int[] captureCount = ((GoPosition) position).getCaptureCount();
+		return status(position, initialBoard).getPoints();
+	}
+
+	@Override
+	protected GameStatus computeStatus(GamePosition position, Board initialBoard)
+	{
+		GoPosition goPosition = (GoPosition) position;
+		int[] captureCount = goPosition.getCaptureCount();
 		int size = captureCount.length;
 		if (size != 2)
 			throw new IllegalStateException("can't handle other sizes than 2");
 		float[] points = new float[size];
 		for (int i = 0; i < size; i++)
 			points[1 - i] = captureCount[i];
-		return points;
-	}
 
-	private boolean isDraw(GamePosition position)
-	{
 		Collection<? extends GameMove> allowedMoves = getAllowedMoves(position);
-		return allowedMoves.size() == 1 && allowedMoves.iterator().next() == SingleCoordinateMove.PASS;
+		int legalMoveCount = allowedMoves.size();
+
+		// win by capture
+		if (finishOnCapture && goPosition.hasAnythingBeenCaptured())
+		{
+			int winnerIndex = points[0] > points[1] ? 0 : points[1] > points[0] ? 1 : GameStatus.NO_WINNER;
+			return new GameStatus(false, legalMoveCount, true, winnerIndex, points);
+		}
+
+		// draw if nothing left to do but pass
+		boolean draw = legalMoveCount == 1 && allowedMoves.iterator().next() == SingleCoordinateMove.PASS;
+		return new GameStatus(false, legalMoveCount, draw, GameStatus.NO_WINNER, points);
 	}
 
-	private boolean isWin(GamePosition position)
+	/**
+	 * @return scoring of the given position, with no stones marked dead yet
+	 */
+	public GoScoring scoring(GamePosition position)
 	{
-		GoPosition goPosition = (GoPosition) position;
-		return finishOnCapture && goPosition.hasAnythingBeenCaptured();
+		return new GoScoring(this, (GoPosition) position);
 	}
 
 	@Override
@@ -250,7 +458,11 @@ public class GoRules extends GameRules
 		private Coordinate coordinate;
 
 		// needed for undo
-		private Map<Coordinate, Piece> captured = new HashMap<Coordinate, Piece>();
+		private GoStrings strings;
+		private int mark;
+		private List<int[]> removed = new LinkedList<int[]>();
+		private List<Piece> removedPieces = new LinkedList<Piece>();
+		private int[] captureCount = new int[2];
 
 		public GoMoveOperation(Coordinate coordinate)
 		{
@@ -263,144 +475,101 @@ public class GoRules extends GameRules
 		{
 			GoPosition goPosition = (GoPosition) position;
 			Board board = position.getBoard();
-			OrthogonalBoardGeometry geometry = (OrthogonalBoardGeometry) getBoardGeometry();
-			PieceSet pieceSet = getPieceSet();
 			int activeIndex = position.getActivePlayerIndex();
 
+			strings = goPosition.strings(GoRules.this);
+			mark = strings.mark();
+			goPosition.addPreviousBoard(board.getZobristKey());
+
 			// set piece
-			board.setPiece(coordinate, pieceSet.getPiece(activeIndex == 0 ? "b" : "w"));
+			int key = coordinate.getKey();
+			board.setPiece(coordinate, stone(activeIndex));
+			strings.place(key);
 
 			// capture
-			for (int[] normal : geometry.normalVectors())
+			int[] neighbours = neighbourKeys[key];
+			for (int i = 0; i < neighbours.length; i++)
 			{
-				for (int[] v : geometry.bidirectional(normal))
+				int neighbour = neighbours[i];
+				Piece piece = board.getPiece(coordinates[neighbour]);
+				if (piece != null)
 				{
-					Coordinate neighbour = geometry.vectorAdd(coordinate, v, 1);
-					if (neighbour != null)
-					{
-						Piece piece = board.getPiece(neighbour);
-						if (piece != null)
-						{
-							int color = piece.getColor();
-							if (color != activeIndex && !checkFreedom(geometry, board, neighbour))
-							{
-								int count = capture(board, neighbour);
-								goPosition.addCaptureCount(color, count);
-							}
-						}
-					}
+					int color = piece.getColor();
+					if (color != activeIndex && !strings.hasLiberties(neighbour)
+							&& !isSameString(strings, neighbours, i, board, color))
+						capture(goPosition, strings, neighbour, piece);
 				}
 			}
 
 			// suicide
-			if (!checkFreedom(geometry, board, coordinate))
-			{
-				int count = capture(board, coordinate);
-				goPosition.addCaptureCount(activeIndex, count);
-			}
+			if (!strings.hasLiberties(key))
+				capture(goPosition, strings, key, board.getPiece(coordinate));
+
+			strings.sync();
 		}
 
-		private boolean checkFreedom(final OrthogonalBoardGeometry geometry, final Board board, Coordinate coordinate)
+		/**
+		 * @return true if the string of the neighbour with the given index has already been seen at a previous index
+		 */
+		private boolean isSameString(GoStrings strings, int[] neighbours, int index, Board board, int color)
 		{
-			Piece piece = board.getPiece(coordinate);
-			if (piece == null)
-				throw new IllegalArgumentException();
-			final int color = piece.getColor();
-
-			final MutableBoolean free = new MutableBoolean(false);
-			geometry.fill(coordinate, new OrthogonalBoardGeometry.CoordinateHook()
+			int root = strings.find(neighbours[index]);
+			for (int i = 0; i < index; i++)
 			{
-				public boolean doNode(Coordinate coordinate)
-				{
-					Piece piece = board.getPiece(coordinate);
-					if (piece == null)
-					{
-						free.setValue(true);
-						return false;
-					}
-					else
-					{
-						return piece.getColor() == color;
-					}
-				}
-			});
-			return free.getValue();
+				Piece piece = board.getPiece(coordinates[neighbours[i]]);
+				if (piece != null && piece.getColor() == color && strings.find(neighbours[i]) == root)
+					return true;
+			}
+			return false;
 		}
 
-		private int capture(final Board board, Coordinate coordinate)
+		private void capture(GoPosition goPosition, GoStrings strings, int key, Piece piece)
 		{
-			final OrthogonalBoardGeometry geometry = (OrthogonalBoardGeometry) getBoardGeometry();
-
-			Piece piece = board.getPiece(coordinate);
-			if (piece == null)
-				throw new IllegalArgumentException();
-			final int color = piece.getColor();
-
-			final MutableInt numberCaptured = new MutableInt();
-
-			geometry.fill(coordinate, new OrthogonalBoardGeometry.CoordinateHook()
+			int color = piece.getColor();
+			int count = strings.size(key);
+			if (getRemoveCaptured())
 			{
-				public boolean doNode(Coordinate coordinate)
-				{
-					Piece piece = board.getPiece(coordinate);
-					if (piece.getColor() == color)
-					{
-						if (getRemoveCaptured())
-						{
-							captured.put(coordinate, piece);
-							board.clearPiece(coordinate);
-						}
-						numberCaptured.setValue(numberCaptured.intValue() + 1);
-						return true;
-					}
-					else
-					{
-						return false;
-					}
-				}
-			});
-
-			return numberCaptured.intValue();
+				removed.add(strings.remove(key));
+				removedPieces.add(piece);
+			}
+			captureCount[color] += count;
+			goPosition.addCaptureCount(color, count);
 		}
 
 		public void undoOperation(GamePosition position)
 		{
 			GoPosition goPosition = (GoPosition) position;
 			Board board = position.getBoard();
+			boolean inSync = strings.isFor(GoRules.this, board);
 
 			// put back captured pieces
-			for (Map.Entry<Coordinate, Piece> entry : captured.entrySet())
+			Iterator<Piece> pieces = removedPieces.iterator();
+			for (int[] keys : removed)
 			{
-				Piece piece = entry.getValue();
-				board.setPiece(entry.getKey(), piece);
-				goPosition.addCaptureCount(piece.getColor(), -1);
+				Piece piece = pieces.next();
+				for (int key : keys)
+					board.setPiece(coordinates[key], piece);
 			}
+			for (int color = 0; color < captureCount.length; color++)
+				if (captureCount[color] != 0)
+					goPosition.addCaptureCount(color, -captureCount[color]);
 
 			// remove piece
 			board.clearPiece(coordinate);
+			goPosition.removePreviousBoard(board.getZobristKey());
 
-			// clean up undo data
-			captured.clear();
-		}
-	}
-
-	private static class MutableBoolean
-	{
-		private boolean value;
-
-		public MutableBoolean(boolean value)
-		{
-			setValue(value);
-		}
-
-		public void setValue(boolean value)
-		{
-			this.value = value;
-		}
+			// strings can only be rolled back if nobody else touched the board in between
+			if (inSync)
+			{
+				strings.rollback(mark);
+				strings.sync();
+			}
 
-		public boolean getValue()
-		{
-			return value;
+			// clean up undo data
+			strings = null;
+			removed.clear();
+			removedPieces.clear();
+			Arrays.fill(captureCount, 0);
 		}
 	}
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.go;
+
+import java.util.Arrays;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.Coordinate;
+import de.schildbach.game.Piece;
+
+/**
+ * End of game scoring of a Go position. Stones can be marked dead, which makes them count like empty fields of the
+ * territory around them. Empty regions are labelled by owner in a single pass over the board, so the score can be
+ * recomputed after each marking.
+ * 
+ * The position may not be modified while it is being scored.
+ * 
+ * @author Andreas Schildbach
+ */
+public final class GoScoring
+{
+	public enum Method
+	{
+		/** stones plus surrounded fields, as in Chinese rules */
+		AREA,
+		/** surrounded fields plus prisoners, as in Japanese rules */
+		TERRITORY
+	}
+
+	public static final int NEUTRAL = -1;
+
+	private static final int UNLABELLED = -2;
+	private static final int EMPTY = -1;
+
+	private final GoRules rules;
+	private final GoPosition position;
+	private final Coordinate[] coordinates;
+	/** color of the stone on each field, or EMPTY */
+	private final int[] colors;
+	private final boolean[] dead;
+	/** owner of each field, or NEUTRAL */
+	private final int[] owner;
+	private final int[] region;
+	private boolean labelled = false;
+
+	public GoScoring(GoRules rules, GoPosition position)
+	{
+		this.rules = rules;
+		this.position = position;
+		this.coordinates = rules.coordinates();
+
+		int numCoordinates = coordinates.length;
+		colors = new int[numCoordinates];
+		dead = new boolean[numCoordinates];
+		owner = new int[numCoordinates];
+		region = new int[numCoordinates];
+
+		Board board = position.getBoard();
+		for (int key = 0; key < numCoordinates; key++)
+		{
+			Piece piece = board.getPiece(coordinates[key]);
+			colors[key] = piece != null ? piece.getColor() : EMPTY;
+		}
+	}
+
+	/**
+	 * Marks the string of the stone on the given field as dead, or as alive again if it has already been marked dead.
+	 */
+	public void toggleDead(Coordinate coordinate)
+	{
+		int key = coordinate.getKey();
+		if (colors[key] == EMPTY)
+			throw new IllegalArgumentException("no stone on " + coordinate);
+
+		boolean value = !dead[key];
+		for (int stone : position.strings(rules).stones(key))
+			dead[stone] = value;
+		labelled = false;
+	}
+
+	public boolean isDead(Coordinate coordinate)
+	{
+		return dead[coordinate.getKey()];
+	}
+
+	/**
+	 * @return index of the player owning the given field, or {@link #NEUTRAL}; alive stones are owned by their player
+	 */
+	public int getOwner(Coordinate coordinate)
+	{
+		label();
+		return owner[coordinate.getKey()];
+	}
+
+	/**
+	 * @param komi
+	 *            compensation added to the points of the second player
+	 * @return points by player index
+	 */
+	public float[] score(Method method, float komi)
+	{
+		label();
+
+		int[] stones = new int[2];
+		int[] deadStones = new int[2];
+		int[] fields = new int[2];
+		for (int key = 0; key < owner.length; key++)
+		{
+			int color = colors[key];
+			if (color != EMPTY && !dead[key])
+			{
+				stones[color]++;
+			}
+			else
+			{
+				if (color != EMPTY)
+					deadStones[color]++;
+				if (owner[key] != NEUTRAL)
+					fields[owner[key]]++;
+			}
+		}
+
+		float[] points = new float[2];
+		for (int i = 0; i < 2; i++)
+		{
+			if (method == Method.AREA)
+				points[i] = stones[i] + fields[i];
+			else
+				points[i] = fields[i] + deadStones[1 - i] + position.getCaptureCount(1 - i);
+		}
+		points[1] += komi;
+
+		return points;
+	}
+
+	/**
+	 * Labels all regions of empty fields and dead stones by the color of the alive stones bordering them. Each field is
+	 * visited once, and the region array is filled up as a queue for all regions in turn.
+	 */
+	private void label()
+	{
+		if (labelled)
+			return;
+
+		Arrays.fill(owner, UNLABELLED);
+		int end = 0;
+		for (int start = 0; start < owner.length; start++)
+		{
+			if (owner[start] != UNLABELLED)
+				continue;
+
+			if (colors[start] != EMPTY && !dead[start])
+			{
+				owner[start] = colors[start];
+				continue;
+			}
+
+			// flood region, collecting the colors bordering it as bits
+			int head = end;
+			int first = end;
+			owner[start] = NEUTRAL;
+			region[end++] = start;
+			int border = 0;
+			while (head < end)
+			{
+				int key = region[head++];
+				for (int neighbour : rules.neighbourKeys(key))
+				{
+					int color = colors[neighbour];
+					if (color != EMPTY && !dead[neighbour])
+					{
+						border |= 1 << color;
+					}
+					else if (owner[neighbour] == UNLABELLED)
+					{
+						owner[neighbour] = NEUTRAL;
+						region[end++] = neighbour;
+					}
+				}
+			}
+
+			int regionOwner = border == 1 ? 0 : border == 2 ? 1 : NEUTRAL;
+			if (regionOwner != NEUTRAL)
+				for (int i = first; i < end; i++)
+					owner[region[i]] = regionOwner;
+		}
+
+		labelled = true;
+	}
+}
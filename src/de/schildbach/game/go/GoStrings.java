@@ -0,0 +1,266 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.go;
+
+import java.util.Arrays;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.Coordinate;
+import de.schildbach.game.Piece;
+
+/**
+ * Strings of orthogonally connected stones of a board, kept in a union-find structure. Each string knows its size,
+ * its stones (as a circular list) and its pseudo liberties, which count every adjacency of a stone to an empty field.
+ * A string has no liberties if and only if its pseudo liberty count is zero, so capture and suicide are detected
+ * without flooding the board.
+ * 
+ * <p>
+ * Every change is journaled, so it can be rolled back to a mark. The strings are only valid as long as the board has
+ * not been modified behind their back, which is detected by comparing its modification count.
+ * </p>
+ * 
+ * @author Andreas Schildbach
+ */
+final class GoStrings
+{
+	private static final int PARENT = 0;
+	private static final int SIZE = 1;
+	private static final int PSEUDO_LIBERTIES = 2;
+	private static final int NEXT = 3;
+
+	private final GoRules rules;
+	private final Board board;
+	private final int[][] values;
+	private int[] journal = new int[64];
+	private int journalSize = 0;
+	private long modCount;
+
+	GoStrings(GoRules rules, Board board)
+	{
+		this.rules = rules;
+		this.board = board;
+
+		int numCoordinates = rules.getBoardGeometry().getNumCoordinates();
+		this.values = new int[4][numCoordinates];
+		Arrays.fill(values[PARENT], -1);
+
+		// build from scratch, without journal
+		Coordinate[] coordinates = rules.coordinates();
+		for (int key = 0; key < numCoordinates; key++)
+		{
+			Piece piece = coordinates[key] != null ? board.getPiece(coordinates[key]) : null;
+			if (piece != null)
+			{
+				values[PARENT][key] = key;
+				values[SIZE][key] = 1;
+				values[NEXT][key] = key;
+				int liberties = 0;
+				for (int neighbour : rules.neighbourKeys(key))
+				{
+					Piece neighbourPiece = board.getPiece(coordinates[neighbour]);
+					if (neighbourPiece == null)
+						liberties++;
+					else if (neighbour < key && neighbourPiece.getColor() == piece.getColor())
+						union(key, neighbour);
+				}
+				values[PSEUDO_LIBERTIES][find(key)] += liberties;
+			}
+		}
+		journalSize = 0;
+		sync();
+	}
+
+	boolean isFor(GoRules rules, Board board)
+	{
+		return this.rules == rules && this.board == board && this.modCount == board.getModCount();
+	}
+
+	/**
+	 * Marks the strings as being in sync with the board again, after the board has been modified along with them.
+	 */
+	void sync()
+	{
+		modCount = board.getModCount();
+	}
+
+	int mark()
+	{
+		return journalSize;
+	}
+
+	/**
+	 * Undoes all changes since the mark.
+	 */
+	void rollback(int mark)
+	{
+		while (journalSize > mark)
+		{
+			journalSize -= 3;
+			values[journal[journalSize]][journal[journalSize + 1]] = journal[journalSize + 2];
+		}
+	}
+
+	int find(int key)
+	{
+		int[] parent = values[PARENT];
+		while (parent[key] != key)
+			key = parent[key];
+		return key;
+	}
+
+	boolean hasLiberties(int key)
+	{
+		return values[PSEUDO_LIBERTIES][find(key)] > 0;
+	}
+
+	int size(int key)
+	{
+		return values[SIZE][find(key)];
+	}
+
+	int pseudoLiberties(int key)
+	{
+		return values[PSEUDO_LIBERTIES][find(key)];
+	}
+
+	/**
+	 * @return Zobrist key of all stones of the string containing the given stone
+	 */
+	long zobristKey(int key)
+	{
+		int color = board.getPiece(rules.coordinates()[key]).getColor();
+		long zobristKey = 0;
+		int stone = key;
+		do
+		{
+			zobristKey ^= rules.stoneKey(color, stone);
+			stone = values[NEXT][stone];
+		}
+		while (stone != key);
+		return zobristKey;
+	}
+
+	/**
+	 * @return keys of all stones of the string containing the given stone
+	 */
+	int[] stones(int key)
+	{
+		int[] stones = new int[size(key)];
+		int stone = key;
+		for (int i = 0; i < stones.length; i++)
+		{
+			stones[i] = stone;
+			stone = values[NEXT][stone];
+		}
+		return stones;
+	}
+
+	/**
+	 * Adds a stone that has just been set on the board, merging it with neighbouring strings of the same color.
+	 */
+	void place(int key)
+	{
+		Coordinate[] coordinates = rules.coordinates();
+		int color = board.getPiece(coordinates[key]).getColor();
+
+		set(PARENT, key, key);
+		set(SIZE, key, 1);
+		set(NEXT, key, key);
+		int liberties = 0;
+		for (int neighbour : rules.neighbourKeys(key))
+			if (board.getPiece(coordinates[neighbour]) == null)
+				liberties++;
+		set(PSEUDO_LIBERTIES, key, liberties);
+
+		for (int neighbour : rules.neighbourKeys(key))
+		{
+			Piece piece = board.getPiece(coordinates[neighbour]);
+			if (piece != null)
+			{
+				int root = find(neighbour);
+				set(PSEUDO_LIBERTIES, root, values[PSEUDO_LIBERTIES][root] - 1);
+				if (piece.getColor() == color)
+					union(key, root);
+			}
+		}
+	}
+
+	/**
+	 * Removes the string containing the given stone from the board.
+	 * 
+	 * @return keys of the removed stones
+	 */
+	int[] remove(int key)
+	{
+		Coordinate[] coordinates = rules.coordinates();
+		int[] stones = stones(key);
+		for (int stone : stones)
+			board.clearPiece(coordinates[stone]);
+
+		// neighbouring strings gain a liberty for each adjacency
+		for (int removed : stones)
+		{
+			for (int neighbour : rules.neighbourKeys(removed))
+			{
+				if (board.getPiece(coordinates[neighbour]) != null)
+				{
+					int root = find(neighbour);
+					set(PSEUDO_LIBERTIES, root, values[PSEUDO_LIBERTIES][root] + 1);
+				}
+			}
+		}
+
+		return stones;
+	}
+
+	private void union(int a, int b)
+	{
+		int rootA = find(a);
+		int rootB = find(b);
+		if (rootA == rootB)
+			return;
+
+		// attach smaller to larger, so paths stay short without compression
+		if (values[SIZE][rootA] < values[SIZE][rootB])
+		{
+			int swap = rootA;
+			rootA = rootB;
+			rootB = swap;
+		}
+
+		set(PARENT, rootB, rootA);
+		set(SIZE, rootA, values[SIZE][rootA] + values[SIZE][rootB]);
+		set(PSEUDO_LIBERTIES, rootA, values[PSEUDO_LIBERTIES][rootA] + values[PSEUDO_LIBERTIES][rootB]);
+
+		// splice circular lists
+		int nextA = values[NEXT][rootA];
+		set(NEXT, rootA, values[NEXT][rootB]);
+		set(NEXT, rootB, nextA);
+	}
+
+	private void set(int array, int key, int value)
+	{
+		if (journalSize + 3 > journal.length)
+			journal = Arrays.copyOf(journal, journal.length * 2);
+		journal[journalSize++] = array;
+		journal[journalSize++] = key;
+		journal[journalSize++] = values[array][key];
+
+		values[array][key] = value;
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.reversi;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.Coordinate;
+
+/**
+ * Bitboard representation of an 8x8 Reversi board, one 64 bit word per color. Bit indices equal the coordinate keys of
+ * the board geometry, so the top left corner is bit 0 and the bottom right corner is bit 63. Moves and flips are
+ * computed by shifting and masking whole words, one direction at a time.
+ * 
+ * @author Andreas Schildbach
+ */
+final class ReversiBitboard
+{
+	private static final long NOT_LEFT_EDGE = ~0x0101010101010101L;
+	private static final long NOT_RIGHT_EDGE = ~0x8080808080808080L;
+
+	private static final int NUM_DIRECTIONS = 8;
+
+	private final long[] stones = new long[2];
+
+	private ReversiBitboard()
+	{
+	}
+
+	static ReversiBitboard fromBoard(Board board)
+	{
+		ReversiBitboard bitboard = new ReversiBitboard();
+
+		for (Coordinate coordinate : board.locateOccupiedFields())
+			bitboard.stones[board.getPiece(coordinate).getColor()] |= 1L << coordinate.getKey();
+
+		return bitboard;
+	}
+
+	long stones(int color)
+	{
+		return stones[color];
+	}
+
+	int count(int color)
+	{
+		return Long.bitCount(stones[color]);
+	}
+
+	/**
+	 * Determines the squares a color is allowed to put a stone on.
+	 * 
+	 * @return mask of squares, empty if color has to pass
+	 */
+	long moves(int color)
+	{
+		long own = stones[color];
+		long opponent = stones[1 - color];
+		long empty = ~(own | opponent);
+		long moves = 0;
+
+		for (int dir = 0; dir < NUM_DIRECTIONS; dir++)
+		{
+			// a run of opponent stones can be at most 6 long
+			long run = shift(own, dir) & opponent;
+			run |= shift(run, dir) & opponent;
+			run |= shift(run, dir) & opponent;
+			run |= shift(run, dir) & opponent;
+			run |= shift(run, dir) & opponent;
+			run |= shift(run, dir) & opponent;
+			moves |= shift(run, dir) & empty;
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Determines the opponent stones that are flipped by putting a stone on a square.
+	 * 
+	 * @return mask of flipped stones
+	 */
+	long flips(int square, int color)
+	{
+		long own = stones[color];
+		long opponent = stones[1 - color];
+		long flips = 0;
+
+		for (int dir = 0; dir < NUM_DIRECTIONS; dir++)
+		{
+			long run = 0;
+			long next = shift(1L << square, dir);
+			while ((next & opponent) != 0)
+			{
+				run |= next;
+				next = shift(next, dir);
+			}
+			if ((next & own) != 0)
+				flips |= run;
+		}
+
+		return flips;
+	}
+
+	boolean isFinished()
+	{
+		return moves(0) == 0 && moves(1) == 0;
+	}
+
+	private static long shift(long b, int dir)
+	{
+		switch (dir)
+		{
+			case 0: // north
+				return b >>> 8;
+			case 1: // northeast
+				return (b >>> 7) & NOT_LEFT_EDGE;
+			case 2: // east
+				return (b << 1) & NOT_LEFT_EDGE;
+			case 3: // southeast
+				return (b << 9) & NOT_LEFT_EDGE;
+			case 4: // south
+				return b << 8;
+			case 5: // southwest
+				return (b << 7) & NOT_RIGHT_EDGE;
+			case 6: // west
+				return (b >>> 1) & NOT_RIGHT_EDGE;
+			case 7: // northwest
+				return (b >>> 9) & NOT_RIGHT_EDGE;
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
+}
@@ -18,10 +18,13 @@
 package de.schildbach.game.reversi;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import de.schildbach.game.Board;
@@ -53,9 +56,17 @@ public class ReversiRules extends GameRules
 
 	private static final String DEFAULT_INITIAL_BOARD = "8/8/8/3wb3/3bw3/8/8/8";
 
+	private final Coordinate[] squares = new Coordinate[64];
+
 	public ReversiRules()
 	{
 		super(new OrthogonalBoardGeometry(new int[] { 8, 8 }, new CoordinateFieldNotations('a', '8')), new StonePieceSet());
+
+		for (Iterator<Coordinate> i = getBoardGeometry().coordinateIterator(); i.hasNext();)
+		{
+			Coordinate coordinate = i.next();
+			squares[coordinate.getKey()] = coordinate;
+		}
 	}
 
 	@Override
@@ -127,10 +138,11 @@ public class ReversiRules extends GameRules
 	@Override
 	public Collection<? extends GameMove> allowedMoves(GamePosition position, Board initialBoard)
 	{
-		Board board = position.getBoard();
-		int activeIndex = position.getActivePlayerIndex();
+		ReversiBitboard bitboard = ReversiBitboard.fromBoard(position.getBoard());
 
-		Collection<SingleCoordinateMove> allowedMoves = getAllowedMoves(board, activeIndex);
+		Collection<SingleCoordinateMove> allowedMoves = new HashSet<SingleCoordinateMove>();
+		for (long moves = bitboard.moves(position.getActivePlayerIndex()); moves != 0; moves &= moves - 1)
+			allowedMoves.add(new SingleCoordinateMove(squares[Long.numberOfTrailingZeros(moves)]));
 
 		// add pass
 		if (allowedMoves.isEmpty())
@@ -139,40 +151,44 @@ public class ReversiRules extends GameRules
 		return allowedMoves;
 	}
 
-	private Collection<SingleCoordinateMove> getAllowedMoves(Board board, int activeIndex)
+	@Override
+	public Iterator<? extends GameMove> legalMoves(GamePosition position, Board initialBoard)
 	{
-		OrthogonalBoardGeometry geometry = (OrthogonalBoardGeometry) getBoardGeometry();
+		final long moves = ReversiBitboard.fromBoard(position.getBoard()).moves(position.getActivePlayerIndex());
+		if (moves == 0)
+			return Collections.singleton(SingleCoordinateMove.PASS).iterator();
 
-		Set<SingleCoordinateMove> allowedMoves = new HashSet<SingleCoordinateMove>();
-
-		board: for (Coordinate coordinate : board.locateEmptyFields())
+		return new Iterator<SingleCoordinateMove>()
 		{
-			n: for (int[] v : geometry.allDirs())
+			private long remaining = moves;
+
+			public boolean hasNext()
 			{
-				for (int i = 1;; i++)
-				{
-					Coordinate c = geometry.vectorAdd(coordinate, v, i);
-					if (c == null)
-						continue n;
-
-					Piece piece = board.getPiece(c);
-					if (piece == null)
-						continue n;
-
-					if (i == 1 && piece.getColor() == activeIndex)
-						continue n;
-
-					if (i > 1 && piece.getColor() == activeIndex)
-					{
-						SingleCoordinateMove move = new SingleCoordinateMove(coordinate);
-						allowedMoves.add(move);
-						continue board;
-					}
-				}
+				return remaining != 0;
 			}
-		}
 
-		return allowedMoves;
+			public SingleCoordinateMove next()
+			{
+				if (remaining == 0)
+					throw new NoSuchElementException();
+
+				int square = Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				return new SingleCoordinateMove(squares[square]);
+			}
+
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public boolean hasLegalMove(GamePosition position, Board initialBoard)
+	{
+		// passing is allowed if nothing else is
+		return true;
 	}
 
 	@Override
@@ -196,34 +212,14 @@ public class ReversiRules extends GameRules
 	@Override
 	public boolean isFinished(GamePosition position, Board initialBoard)
 	{
-		return isFinished(position.getBoard());
-	}
-
-	private boolean isFinished(Board board)
-	{
-		for (int color = 0; color < 2; color++)
-			if (!getAllowedMoves(board, color).isEmpty())
-				return false;
-
-		return true;
+		return ReversiBitboard.fromBoard(position.getBoard()).isFinished();
 	}
 
 	@Override
 	public float[] points(GamePosition position, Board initialBoard)
 	{
-		return points(position.getBoard());
-	}
-
-	private float[] points(Board board)
-	{
-		float[] points = new float[2];
-		for (Coordinate c : board.locateOccupiedFields())
-		{
-			Piece piece = board.getPiece(c);
-			points[piece.getColor()] += 1;
-		}
-
-		return points;
+		ReversiBitboard bitboard = ReversiBitboard.fromBoard(position.getBoard());
+		return new float[] { bitboard.count(0), bitboard.count(1) };
 	}
 
 	@Override
@@ -237,38 +233,14 @@ public class ReversiRules extends GameRules
 		if (!reversiMove.isPass())
 		{
 			Coordinate coordinate = reversiMove.getCoordinate();
-			Board board = position.getBoard();
-			OrthogonalBoardGeometry geometry = (OrthogonalBoardGeometry) getBoardGeometry();
 			int activeIndex = position.getActivePlayerIndex();
+			Piece stone = getPieceSet().getPiece(Stone.class, activeIndex);
 
-			ops.add(new SetPieceOperation(getPieceSet().getPiece(Stone.class, activeIndex), coordinate));
+			ops.add(new SetPieceOperation(stone, coordinate));
 
-			n: for (int[] v : geometry.allDirs())
-			{
-				Set<Coordinate> capturedCoordinates = new HashSet<Coordinate>();
-
-				for (int i = 1;; i++)
-				{
-					Coordinate c = geometry.vectorAdd(coordinate, v, i);
-					if (c == null)
-						continue n;
-
-					Piece piece = board.getPiece(c);
-					if (piece == null)
-						continue n;
-
-					if (piece.getColor() != activeIndex)
-					{
-						capturedCoordinates.add(c);
-					}
-					else
-					{
-						for (Coordinate capt : capturedCoordinates)
-							ops.add(new SwapOutPieceOperation(capt, getPieceSet().getPiece(Stone.class, activeIndex)));
-						continue n;
-					}
-				}
-			}
+			ReversiBitboard bitboard = ReversiBitboard.fromBoard(position.getBoard());
+			for (long flips = bitboard.flips(coordinate.getKey(), activeIndex); flips != 0; flips &= flips - 1)
+				ops.add(new SwapOutPieceOperation(squares[Long.numberOfTrailingZeros(flips)], stone));
 		}
 
 		// next player
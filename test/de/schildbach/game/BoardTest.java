@@ -18,9 +18,11 @@
 package de.schildbach.game;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 
 import org.junit.Before;
@@ -28,6 +30,8 @@ import org.junit.Test;
 
 import de.schildbach.game.chess.ChessBoardGeometry;
 import de.schildbach.game.chess.piece.Pawn;
+import de.schildbach.game.common.BigCoordinateFieldNotations;
+import de.schildbach.game.common.OrthogonalBoardGeometry;
 
 /**
  * @author Andreas Schildbach
@@ -59,6 +63,41 @@ public class BoardTest
 		assertTrue(fields.isEmpty());
 	}
 
+	@Test
+	public void locateFieldsOnLargeBoard()
+	{
+		// spans several words of the bitset
+		OrthogonalBoardGeometry geometry = new OrthogonalBoardGeometry(new int[] { 19, 19 }, new BigCoordinateFieldNotations());
+		Board board = geometry.newBoard();
+		Set<Coordinate> occupied = new HashSet<Coordinate>();
+		int i = 0;
+		for (Iterator<Coordinate> iCoordinates = geometry.coordinateIterator(); iCoordinates.hasNext(); i++)
+		{
+			Coordinate coordinate = iCoordinates.next();
+			if (i % 7 == 0)
+			{
+				board.setPiece(coordinate, WHITE_PAWN);
+				occupied.add(coordinate);
+			}
+		}
+		Coordinate cleared = occupied.iterator().next();
+		board.clearPiece(cleared);
+		occupied.remove(cleared);
+
+		assertEquals(occupied, new HashSet<Coordinate>(board.locateOccupiedFields()));
+
+		Set<Coordinate> emptyFields = new HashSet<Coordinate>(board.locateEmptyFields());
+		assertEquals(19 * 19 - occupied.size(), emptyFields.size());
+		assertEquals(emptyFields.size(), board.locateEmptyFields().size());
+		assertTrue(emptyFields.contains(cleared));
+		emptyFields.retainAll(occupied);
+		assertTrue(emptyFields.isEmpty());
+
+		board.clear();
+		assertEquals(19 * 19, new HashSet<Coordinate>(board.locateEmptyFields()).size());
+		assertFalse(board.locateOccupiedFields().iterator().hasNext());
+	}
+
 	@Test
 	public void locateOccupiedFields()
 	{
@@ -88,6 +127,36 @@ public class BoardTest
 		assertTrue(fields.isEmpty());
 	}
 
+	@Test
+	public void locatePiecesOfColor()
+	{
+		board.setPiece(geometry.locateCoordinate("a2"), BLACK_PAWN);
+		board.setPiece(geometry.locateCoordinate("b1"), BLACK_PAWN);
+		board.movePiece(geometry.locateCoordinate("a1"), geometry.locateCoordinate("b2"));
+
+		assertEquals(1, board.countPieces(0));
+		assertEquals(geometry.locateCoordinate("b2"), board.locatePiece(0, 0));
+		assertEquals(2, board.countPieces(1));
+		assertEquals(0, board.countPieces(2));
+		assertTrue(board.locatePieces(1).contains(geometry.locateCoordinate("b1")));
+
+		board.clearPiece(geometry.locateCoordinate("a2"));
+
+		Set<Coordinate> fields = new HashSet<Coordinate>(board.locatePieces(1));
+		assertTrue(fields.remove(geometry.locateCoordinate("b1")));
+		assertTrue(fields.isEmpty());
+
+		// a copy is kept, while a view follows the board
+		Set<Coordinate> copy = board.locatePieces(1);
+		Set<Coordinate> view = board.viewPieces(1);
+		Board clone = (Board) board.clone();
+		board.clear();
+		assertTrue(board.locatePieces(1).isEmpty());
+		assertEquals(1, copy.size());
+		assertTrue(view.isEmpty());
+		assertEquals(1, clone.locatePieces(1).size());
+	}
+
 	@Test
 	public void cloneBoard()
 	{
@@ -97,4 +166,19 @@ public class BoardTest
 		assertEquals(board.hashCode(), clone.hashCode());
 		assertEquals(board.locateEmptyFields(), clone.locateEmptyFields());
 	}
+
+	@Test
+	public void cloneIsIndependent()
+	{
+		board.setPiece(geometry.locateCoordinate("a2"), WHITE_PAWN);
+		Board clone = (Board) board.clone();
+
+		clone.clearPiece(geometry.locateCoordinate("a1"));
+		clone.setPiece(geometry.locateCoordinate("b2"), BLACK_PAWN);
+
+		assertEquals(2, board.locatePieces(WHITE_PAWN).size());
+		assertTrue(board.locateEmptyFields().contains(geometry.locateCoordinate("b2")));
+		assertEquals(geometry.locateCoordinate("a2"), clone.locatePiece(WHITE_PAWN));
+		assertEquals(2, clone.locateOccupiedFields().size());
+	}
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.schildbach.game.Instrumentation.Counter;
+import de.schildbach.game.checkers.CheckersRules;
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.dragonchess.DragonchessRules;
+import de.schildbach.game.go.GoRules;
+import de.schildbach.game.reversi.ReversiRules;
+
+/**
+ * Hammers shared rules instances from many threads and checks the results against those of a single thread.
+ * 
+ * @author Andreas Schildbach
+ */
+public class ConcurrencyTest
+{
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 5;
+
+	@Test
+	public void sharedRules() throws Exception
+	{
+		assertConcurrent(new ChessRules(null), "1. e4 d5 2. exd5 c5 3. dxc6 Qd6 4. cxb7 Qe6+ 5. Be2 Qxe2+ 6. Nxe2 Nc6 7. bxa8=Q Kd7", 2);
+		assertConcurrent(new ChessRules(null, true), "1. e4 d5 2. exd5 c5 3. dxc6 Qd6 4. cxb7 Qe6+ 5. Be2 Qxe2+ 6. Nxe2 Nc6 7. bxa8=Q Kd7", 2);
+		assertConcurrent(new ChessRules(ChessRules.Variant.SUICIDE), "1. e3 c5 2. Ba6 Nxa6 3. Qh5 Qb6 4. Qxc5 Nxc5", 2);
+		assertConcurrent(new CheckersRules(null), "1. 33-29 18-23 2. 29-18 12-23 3. 38-33 13-18", 3);
+		assertConcurrent(new GoRules(null), "1. 5/5 4/5 2. 4/4 5/4", 2);
+		assertConcurrent(new ReversiRules(), "1. e6 f4 2. e3 d6 3. g5 e2", 3);
+		assertConcurrent(new DragonchessRules(), "1. R1d4 P1h6 2. G1e4 R1j5", 1);
+	}
+
+	@Test
+	public void counters() throws Exception
+	{
+		final BoardGeometry geometry = new ChessRules(null).getBoardGeometry();
+		final int boardsPerThread = 10000;
+
+		long before = Instrumentation.get(Counter.BOARD);
+		runConcurrently(new Callable<Object>()
+		{
+			public Object call()
+			{
+				for (int i = 0; i < boardsPerThread; i++)
+					geometry.newBoard();
+				return null;
+			}
+		});
+
+		assertEquals(THREADS * boardsPerThread, Instrumentation.get(Counter.BOARD) - before);
+	}
+
+	private void assertConcurrent(final GameRules rules, final String notation, final int depth) throws Exception
+	{
+		final String expected = walk(rules, notation, depth);
+
+		List<Object> results = runConcurrently(new Callable<Object>()
+		{
+			public Object call()
+			{
+				String actual = null;
+				for (int i = 0; i < ROUNDS; i++)
+					actual = walk(rules, notation, depth);
+				return actual;
+			}
+		});
+
+		for (Object actual : results)
+			assertEquals(expected, actual);
+	}
+
+	/**
+	 * Parses and formats the game, and counts the nodes below each of its positions.
+	 */
+	private static String walk(GameRules rules, String notation, int depth)
+	{
+		Game game = rules.newGame(null, notation, Locale.ENGLISH);
+		Board initialBoard = game.getInitialPosition().getBoard();
+		Perft perft = new Perft(rules);
+
+		StringBuilder result = new StringBuilder(rules.formatGame(game, Locale.ENGLISH));
+		for (int i = 0; i < game.getSize(); i++)
+		{
+			GamePosition position = (GamePosition) game.getPosition(i).clone();
+			result.append(' ').append(rules.formatPosition(position));
+			result.append(' ').append(perft.perft(position, initialBoard, depth));
+		}
+		return result.toString();
+	}
+
+	private static List<Object> runConcurrently(final Callable<Object> task) throws Exception
+	{
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			List<Future<Object>> futures = new ArrayList<Future<Object>>();
+			for (int i = 0; i < THREADS; i++)
+			{
+				futures.add(executor.submit(new Callable<Object>()
+				{
+					public Object call() throws Exception
+					{
+						barrier.await();
+						return task.call();
+					}
+				}));
+			}
+
+			List<Object> results = new ArrayList<Object>();
+			for (Future<Object> future : futures)
+				results.add(future.get());
+			return results;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.schildbach.game.GameRulesListener.Operation;
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.common.ChessLikeRules;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class GameRulesMetricsTest
+{
+	private static final ChessRules CHESS_RULES = new ChessRules(null);
+
+	@After
+	public void removeListener()
+	{
+		GameRules.setListener(null);
+	}
+
+	@Test
+	public void countsOperations()
+	{
+		GameRulesMetrics metrics = new GameRulesMetrics();
+		GameRules.setListener(metrics);
+
+		Game game = CHESS_RULES.newGame(null, "1. e4 e5 2. Nf3", Locale.ENGLISH);
+		assertEquals(20 + 9, CHESS_RULES.allowedMoves(game).size());
+		CHESS_RULES.isFinished(game);
+		CHESS_RULES.checkState(game.getActualPosition(), game.getInitialPosition().getBoard());
+		CHESS_RULES.formatGameArray(game, Locale.ENGLISH);
+
+		assertEquals(3, metrics.getCalls(ChessRules.class, Operation.EXECUTE_MOVE));
+		assertEquals(3, metrics.getCalls(ChessRules.class, Operation.PARSE_MOVE));
+		assertEquals(1, metrics.getCalls(ChessRules.class, Operation.ALLOWED_MOVES));
+		assertEquals(29, metrics.getMovesGenerated(ChessRules.class));
+		assertEquals(1, metrics.getCalls(ChessRules.class, Operation.IS_FINISHED));
+		assertTrue(metrics.getCalls(ChessRules.class, Operation.CHECK_STATE) >= 1);
+		assertEquals(1, metrics.getCalls(ChessRules.class, Operation.FORMAT_GAME_ARRAY));
+		assertEquals(1, metrics.getCalls(ChessRules.class, Operation.NEW_GAME));
+		CHESS_RULES.unmarshal(null, CHESS_RULES.marshal(game));
+		assertEquals(1, metrics.getCalls(ChessRules.class, Operation.UNMARSHAL));
+		CHESS_RULES.formatGame(game, Locale.ENGLISH);
+		assertEquals(1, metrics.getCalls(ChessRules.class, Operation.FORMAT_GAME));
+		assertTrue(metrics.getPositionsCloned(ChessRules.class) >= 1);
+		assertTrue(metrics.getMaxNanos(ChessRules.class, Operation.EXECUTE_MOVE) <= metrics.getTotalNanos(ChessRules.class,
+				Operation.EXECUTE_MOVE));
+
+		long histogramCalls = 0;
+		for (long calls : metrics.getHistogram(ChessRules.class, Operation.PARSE_MOVE))
+			histogramCalls += calls;
+		assertEquals(3, histogramCalls);
+
+		assertEquals(0, metrics.getCalls(ChessLikeRules.class, Operation.EXECUTE_MOVE));
+		metrics.reset();
+		assertEquals(0, metrics.getCalls(ChessRules.class, Operation.EXECUTE_MOVE));
+	}
+
+	@Test
+	public void disabled()
+	{
+		GameRulesMetrics metrics = new GameRulesMetrics();
+		GameRules.setListener(metrics);
+		GameRules.setListener(null);
+		assertNull(GameRules.getListener());
+
+		CHESS_RULES.newGame(null, "1. e4 e5", Locale.ENGLISH);
+		assertTrue(metrics.getRulesClasses().isEmpty());
+	}
+
+	@Test
+	public void buckets()
+	{
+		assertEquals(0, GameRulesMetrics.bucket(0));
+		assertEquals(0, GameRulesMetrics.bucket(1));
+		assertEquals(1, GameRulesMetrics.bucket(2));
+		assertEquals(1, GameRulesMetrics.bucket(3));
+		assertEquals(10, GameRulesMetrics.bucket(1024));
+		assertEquals(GameRulesMetrics.NUM_BUCKETS - 1, GameRulesMetrics.bucket(Long.MAX_VALUE));
+	}
+}
@@ -18,6 +18,8 @@
 package de.schildbach.game;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Locale;
 
@@ -60,4 +62,57 @@ public class GameRulesTest extends AbstractGameRulesTest
 		rules.executeMoves(game, "8. Qd1 Qd8", Locale.ENGLISH);
 		assertEquals(3, rules.countContainsBoard(game, board));
 	}
+
+	@Test
+	public void repetitionSurvivesUndo()
+	{
+		Game game = game(null, "1. Nf3 Nf6 2. Ng1 Ng8 3. Nf3 Nf6 4. Ng1");
+		assertFalse(rules.canDrawBeClaimed(game));
+		rules.executeMoves(game, "4... Ng8", Locale.ENGLISH);
+		assertTrue(rules.canDrawBeClaimed(game));
+		rules.undoLastMove(game);
+		assertFalse(rules.canDrawBeClaimed(game));
+		rules.executeMoves(game, "4... Ng8", Locale.ENGLISH);
+		assertTrue(rules.canDrawBeClaimed(game));
+	}
+
+	@Test
+	public void compactHistory()
+	{
+		String acn = "1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 4. Ba4 Nf6 5. O-O Be7 6. Re1 b5 7. Bb3 d6 8. c3 O-O";
+		Game full = game(null, acn);
+		Game compact = game(null, acn);
+		compact.setCheckpointInterval(4);
+		assertEquals(full, compact);
+		for (int i = full.getSize() - 1; i >= 0; i--)
+			assertEquals(full.getPosition(i), compact.getPosition(i));
+
+		rules.rewind(full, 9);
+		rules.rewind(compact, 9);
+		assertEquals(full.getActualPosition(), compact.getActualPosition());
+		rules.executeMoves(compact, "5... Be7 6. Re1", Locale.ENGLISH);
+		rules.executeMoves(full, "5... Be7 6. Re1", Locale.ENGLISH);
+		for (int i = 0; i < full.getSize(); i++)
+			assertEquals(full.getPosition(i), compact.getPosition(i));
+
+		compact.setCheckpointInterval(1);
+		assertEquals(full, compact);
+	}
+
+	@Test
+	public void undoRestoresPositions()
+	{
+		String acn = "1. e4 d5 2. exd5 c5 3. dxc6 Qd6 4. cxb7 Qe6+ 5. Be2 Qxe2+ 6. Nxe2 Nc6 7. bxa8=Q Kd7";
+		Game full = game(null, acn);
+		full.setCheckpointInterval(1);
+		Game game = game(null, null);
+		rules.executeMoves(game, acn, Locale.ENGLISH);
+
+		for (int i = full.getSize() - 1; i >= 0; i--)
+		{
+			assertEquals(full.getPosition(i), game.getActualPosition());
+			rules.undoLastMove(game);
+		}
+		assertEquals(full.getInitialPosition(), game.getActualPosition());
+	}
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.reversi.ReversiRules;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class GameStatusTest
+{
+	private static final ChessRules CHESS_RULES = new ChessRules(null);
+
+	@Test
+	public void ongoing()
+	{
+		Game game = CHESS_RULES.newGame(null);
+		GameStatus status = CHESS_RULES.status(game);
+
+		assertFalse(status.isFinished());
+		assertFalse(status.isCheck());
+		assertEquals(20, status.getLegalMoveCount());
+		assertEquals(GameStatus.NO_WINNER, status.getWinnerIndex());
+		assertThat(status.getPoints(), equalTo(new float[] { 0f, 0f }));
+	}
+
+	@Test
+	public void checkmate()
+	{
+		Game game = CHESS_RULES.newGame(null, "1. f3 e5 2. g4 Qh4", Locale.ENGLISH);
+		GameStatus status = CHESS_RULES.status(game);
+
+		assertTrue(status.isFinished());
+		assertFalse(status.isDraw());
+		assertTrue(status.isCheck());
+		assertEquals(0, status.getLegalMoveCount());
+		assertEquals(1, status.getWinnerIndex());
+		assertThat(status.getPoints(), equalTo(new float[] { 0f, 1f }));
+		assertTrue(CHESS_RULES.isFinished(game));
+		assertThat(CHESS_RULES.points(game), equalTo(status.getPoints()));
+	}
+
+	@Test
+	public void cachedUntilModified()
+	{
+		Game game = CHESS_RULES.newGame(null, "1. e4 e5", Locale.ENGLISH);
+		GameStatus status = CHESS_RULES.status(game);
+		assertSame(status, CHESS_RULES.status(game));
+
+		CHESS_RULES.executeMove(game, CHESS_RULES.parseMove("Qh5", Locale.ENGLISH, game));
+		GameStatus after = CHESS_RULES.status(game);
+		assertNotSame(status, after);
+		assertEquals(29, status.getLegalMoveCount());
+		assertEquals(CHESS_RULES.allowedMoves(game).size(), after.getLegalMoveCount());
+
+		CHESS_RULES.undoLastMove(game);
+		assertEquals(status, CHESS_RULES.status(game));
+	}
+
+	@Test
+	public void invalidatedByBoardModification()
+	{
+		Game game = CHESS_RULES.newGame(null);
+		GamePosition position = (GamePosition) game.getActualPosition().clone();
+		Board initialBoard = game.getInitialPosition().getBoard();
+		assertEquals(20, CHESS_RULES.status(position, initialBoard).getLegalMoveCount());
+
+		position.getBoard().clearPiece(CHESS_RULES.getBoardGeometry().locateCoordinate("b1"));
+		assertEquals(19, CHESS_RULES.status(position, initialBoard).getLegalMoveCount());
+	}
+
+	@Test
+	public void defaultStatus()
+	{
+		ReversiRules rules = new ReversiRules();
+		GameStatus status = rules.status(rules.newGame(null));
+
+		assertFalse(status.isFinished());
+		assertEquals(4, status.getLegalMoveCount());
+		assertThat(status.getPoints(), equalTo(new float[] { 2f, 2f }));
+	}
+}
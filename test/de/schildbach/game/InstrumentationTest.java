@@ -0,0 +1,50 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.schildbach.game.Instrumentation.Counter;
+import de.schildbach.game.chess.ChessRules;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class InstrumentationTest
+{
+	@Test
+	public void countsInstances()
+	{
+		Map<Counter, Long> before = Instrumentation.snapshot();
+		GameRules rules = new ChessRules(null);
+		rules.getBoardGeometry().newBoard();
+		Map<Counter, Long> after = Instrumentation.snapshot();
+
+		assertEquals(before.get(Counter.GAME_RULES) + 1, (long) after.get(Counter.GAME_RULES));
+		assertEquals(before.get(Counter.BOARD) + 1, (long) after.get(Counter.BOARD));
+		assertEquals(before.get(Counter.BOARD_GEOMETRY) + 1, (long) after.get(Counter.BOARD_GEOMETRY));
+		assertEquals(before.get(Counter.BOARD_GEOMETRY) + 1, Instrumentation.get(Counter.BOARD_GEOMETRY));
+		assertTrue(after.get(Counter.PIECE) > before.get(Counter.PIECE));
+		assertEquals(Counter.values().length, after.size());
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.schildbach.game.checkers.CheckersRules;
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.dragonchess.DragonchessRules;
+import de.schildbach.game.go.GoRules;
+import de.schildbach.game.reversi.ReversiRules;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class LegalMovesTest
+{
+	private static final int PLIES = 60;
+
+	@Test
+	public void chess()
+	{
+		assertLegalMoves(new ChessRules(null), 1);
+		assertLegalMoves(new ChessRules(null, true), 2);
+	}
+
+	@Test
+	public void chessVariants()
+	{
+		assertLegalMoves(new ChessRules(ChessRules.Variant.SUICIDE), 3);
+		assertLegalMoves(new ChessRules(ChessRules.Variant.ANTIKING), 4);
+	}
+
+	@Test
+	public void checkers()
+	{
+		assertLegalMoves(new CheckersRules(null), 5);
+		assertLegalMoves(new CheckersRules(CheckersRules.Variant.SUICIDE), 6);
+	}
+
+	@Test
+	public void reversiAndGo()
+	{
+		assertLegalMoves(new ReversiRules(), 7);
+		assertLegalMoves(new GoRules(null), 8);
+		assertLegalMoves(new GoRules(GoRules.Variant.CAPTURE), 9);
+	}
+
+	@Test
+	public void dragonchess()
+	{
+		assertLegalMoves(new DragonchessRules(), 10);
+	}
+
+	@Test
+	public void mate()
+	{
+		assertNoLegalMove(new ChessRules(null), "1. f3 e5 2. g4 Qh4");
+		assertNoLegalMove(new ChessRules(null, true), "1. f3 e5 2. g4 Qh4");
+	}
+
+	@Test
+	public void stalemate()
+	{
+		String history = "1. e3 a5 2. Qh5 Ra6 3. Qxa5 h5 4. h4 Rah6 5. Qxc7 f6 6. Qxd7 Kf7 7. Qxb7 Qd3 8. Qxb8 Qh7 9. Qxc8 Kg6 10. Qe6";
+		assertNoLegalMove(new ChessRules(null), history);
+		assertNoLegalMove(new ChessRules(null, true), history);
+	}
+
+	private static void assertNoLegalMove(ChessRules rules, String history)
+	{
+		Game game = rules.newGame(null, history, Locale.ENGLISH);
+
+		assertFalse(rules.hasLegalMove(game));
+		assertFalse(rules.legalMoves(game.getActualPosition(), game.getInitialPosition().getBoard()).hasNext());
+		assertTrue(rules.isFinished(game));
+	}
+
+	private static void assertLegalMoves(GameRules rules, long seed)
+	{
+		Random random = new Random(seed);
+		Game game = rules.newGame(null);
+
+		for (int ply = 0; ply < PLIES; ply++)
+		{
+			GamePosition position = game.getActualPosition();
+			Board initialBoard = game.getInitialPosition().getBoard();
+			List<GameMove> allowedMoves = new ArrayList<GameMove>(rules.allowedMoves(position, initialBoard));
+
+			Set<GameMove> legalMoves = new HashSet<GameMove>();
+			for (Iterator<? extends GameMove> i = rules.legalMoves(position, initialBoard); i.hasNext();)
+				assertTrue(legalMoves.add(i.next()));
+			assertEquals(new HashSet<GameMove>(allowedMoves), legalMoves);
+			assertEquals(!allowedMoves.isEmpty(), rules.hasLegalMove(position, initialBoard));
+			boolean finished = rules.isFinished(game);
+			assertEquals(rules.status(position, initialBoard).isFinished(), finished);
+
+			if (allowedMoves.isEmpty() || finished)
+				break;
+
+			rules.executeMove(game, allowedMoves.get(random.nextInt(allowedMoves.size())));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class LongMultisetTest
+{
+	@Test
+	public void addAndRemove()
+	{
+		LongMultiset set = new LongMultiset();
+		set.add(42);
+		set.add(42);
+		set.add(-1);
+		assertEquals(2, set.count(42));
+		assertEquals(1, set.count(-1));
+		assertEquals(0, set.count(0));
+		assertEquals(3, set.size());
+
+		assertTrue(set.remove(42));
+		assertEquals(1, set.count(42));
+		assertTrue(set.remove(42));
+		assertEquals(0, set.count(42));
+		assertFalse(set.remove(42));
+		assertEquals(1, set.size());
+	}
+
+	@Test
+	public void manyKeys()
+	{
+		LongMultiset set = new LongMultiset();
+		for (long key = 0; key < 1000; key++)
+			set.add(key * 64);
+		for (long key = 0; key < 1000; key += 2)
+			assertTrue(set.remove(key * 64));
+		for (long key = 0; key < 1000; key++)
+			assertEquals(key % 2, set.count(key * 64));
+		assertEquals(500, set.size());
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.dragonchess.DragonchessRules;
+import de.schildbach.game.reversi.ReversiRules;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class ParallelPerftTest
+{
+	@Test
+	public void sameCountsAsPerft() throws Exception
+	{
+		assertPerft(new ChessRules(null), "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 2, 2039);
+		assertPerft(new ChessRules(null), null, 3, 8902);
+		assertPerft(new ChessRules(null, true), null, 3, 8902);
+		assertPerft(new DragonchessRules(), null, 2, 8094);
+		assertPerft(new ReversiRules(), null, 6, 8200);
+	}
+
+	@Test
+	public void depthOne() throws Exception
+	{
+		assertPerft(new ChessRules(null), null, 1, 20);
+	}
+
+	private void assertPerft(GameRules rules, String notation, int depth, long expectedNodes) throws Exception
+	{
+		Board initialBoard = rules.initialPositionFromBoard(null).getBoard();
+		GamePosition position = notation != null ? rules.parsePosition(notation) : (GamePosition) rules.initialPositionFromBoard(null)
+				.clone();
+		String before = rules.formatPosition(position);
+
+		ParallelPerft perft = new ParallelPerft(rules, 4);
+		try
+		{
+			ParallelPerft.Result result = perft.perft(position, initialBoard, depth);
+			assertEquals(expectedNodes, result.getNodes());
+
+			long threadNodes = 0;
+			for (long nodes : result.getNodesByThread().values())
+				threadNodes += nodes;
+			assertEquals(expectedNodes, threadNodes);
+			assertTrue(result.getNodesByThread().size() <= 4);
+		}
+		finally
+		{
+			perft.shutdown();
+		}
+
+		assertEquals(before, rules.formatPosition(position));
+	}
+}
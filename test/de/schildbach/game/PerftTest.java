@@ -0,0 +1,114 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.schildbach.game.checkers.CheckersRules;
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.dragonchess.DragonchessRules;
+import de.schildbach.game.go.GoRules;
+import de.schildbach.game.reversi.ReversiRules;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class PerftTest
+{
+	@Test
+	public void chess()
+	{
+		ChessRules rules = new ChessRules(null);
+		assertPerft(rules, null, 20, 400, 8902);
+		assertPerft(rules, "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 48, 2039);
+		assertPerft(rules, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2812);
+		assertPerft(rules, "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 6, 264);
+		assertPerft(rules, "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 44, 1486);
+	}
+
+	@Test
+	public void chessBitboard()
+	{
+		assertPerft(new ChessRules(null, true), "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 48, 2039);
+	}
+
+	@Test
+	public void chessVariants()
+	{
+		assertPerft(new ChessRules(ChessRules.Variant.SUICIDE), null, 20, 400, 8067);
+		assertPerft(new ChessRules(ChessRules.Variant.ANTIKING), null, 21);
+	}
+
+	@Test
+	public void checkers()
+	{
+		assertPerft(new CheckersRules(null), null, 9, 81, 658, 4265);
+	}
+
+	@Test
+	public void reversi()
+	{
+		assertPerft(new ReversiRules(), null, 4, 12, 56, 244, 1396);
+	}
+
+	@Test
+	public void go()
+	{
+		assertPerft(new GoRules(null), null, 82, 6643);
+	}
+
+	@Test
+	public void dragonchess()
+	{
+		assertPerft(new DragonchessRules(), null, 90, 8094);
+	}
+
+	@Test
+	public void divideSumsUpToPerft()
+	{
+		ChessRules rules = new ChessRules(null);
+		Board initialBoard = rules.initialPositionFromBoard(null).getBoard();
+		GamePosition position = rules.parsePosition("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		Perft perft = new Perft(rules);
+
+		Map<String, Long> divide = perft.divide(position, initialBoard, 2);
+		assertEquals(48, divide.size());
+		long nodes = 0;
+		for (long count : divide.values())
+			nodes += count;
+		assertEquals(perft.perft(position, initialBoard, 2), nodes);
+	}
+
+	private void assertPerft(GameRules rules, String notation, long... expectedNodes)
+	{
+		Board initialBoard = rules.initialPositionFromBoard(null).getBoard();
+		GamePosition position = notation != null ? rules.parsePosition(notation) : (GamePosition) rules.initialPositionFromBoard(null)
+				.clone();
+		String before = rules.formatPosition(position);
+		Perft perft = new Perft(rules);
+
+		for (int depth = 1; depth <= expectedNodes.length; depth++)
+			assertEquals("depth " + depth, expectedNodes[depth - 1], perft.perft(position, initialBoard, depth));
+
+		assertEquals(before, rules.formatPosition(position));
+	}
+}
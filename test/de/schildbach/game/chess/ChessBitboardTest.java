@@ -0,0 +1,139 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.chess;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.Game;
+import de.schildbach.game.GameMove;
+import de.schildbach.game.GamePosition;
+import de.schildbach.game.MicroOperation;
+import de.schildbach.game.chess.ChessRules.Variant;
+
+/**
+ * Checks that move generation on bitboards is equivalent to move generation on the board.
+ * 
+ * @author Andreas Schildbach
+ */
+public class ChessBitboardTest
+{
+	@Test
+	public void chessGames()
+	{
+		assertSameMovesAlongGame(null, null, "1. e4 d6 2. d4 Nf6 3. Nc3 g6 4. Be3 Bg7 5. Qd2 c6 6. f3 b5 7. Nge2 Nbd7 8. Bh6 Bxh6 "
+				+ "9. Qxh6 Bb7 10. a3 e5 11. O-O-O Qe7 12. Kb1 a6 13. Nc1 O-O-O 14. Nb3 exd4 15. Rxd4 c5 "
+				+ "16. Rd1 Nb6 17. g3 Kb8 18. Na5 Ba8 19. Bh3 d5 20. Qf4+ Ka7 21. Rhe1 d4 22. Nd5 Nbxd5 23. exd5 Qd6");
+		assertSameMovesAlongGame(null, null, "1. d4 d5 2. c4 e5 3. dxe5 d4 4. Nf3 Nc6 5. g3 h6 6. Bg2 g5 7. e3 Bb4+ 8. Kf1 Bg4 9. exd4 Qd7 "
+				+ "10. h3 Bxf3 11. Bxf3 O-O-O 12. Bg4 Nxd4 13. Qxd4 f5 14. exf6 Qf5");
+		assertSameMovesAlongGame(null, null, "1. e4 d5 2. d3 dxe4 3. dxe4 Qxd1+ 4. Kxd1 Nc6 5. c3 f5 6. Nd2 fxe4 7. Nxe4 Bg4+ 8. f3 O-O-O+");
+		assertSameMovesAlongGame(null, null, "1. Nf3 d5 2. g3 Nf6 3. Bg2 c6 4. O-O Bg4 5. d3 Bxf3 6. exf3 e6 7. Bf4 Bd6 8. Bg5 Nbd7 "
+				+ "9. Nc3 h6 10. Bxf6 Nxf6 11. Qe2 O-O 12. Rae1 Qc7 13. f4 b5 14. a3 a5 15. b3 Qb6 16. Qe3 d4 17. Qe4 dxc3 18. Qxc6 Qxc6 "
+				+ "19. Bxc6 Rab8 20. d4 b4 21. a4 Nd5 22. Rd1 Rb6 23. Bxd5 exd5 24. Rfe1 Rbb8 25. Kg2 Rfe8 26. Kf3 Kf8 27. h4 Rxe1 "
+				+ "28. Rxe1 Re8 29. Rxe8+ Kxe8 30. Kg4 Ke7 31. f5 Kf6 32. f4 Bc7 33. h5 Bd6 34. Kf3 Kxf5 35. Ke3 Kg4 36. Kf2 Kxh5 "
+				+ "37. Kf3 f5 38. Kg2 Kg4 39. Kh2 Kf3 40. Kh3 Be7 41. Kh2 h5 42. Kh3 g6 43. Kh2 Ke2 44. Kh3 Kd2 45. Kg2 Kxc2 46. Kh2 Kxb3 "
+				+ "47. Kg2 Kxa4 48. Kf1 Kb3 49. Ke2 Kb2 50. Kd3 b3 51. Ke2 c2 52. Kd3 a4 53. Kd2 a3 54. Kd3 c1=B 55. Ke2 Kc3");
+	}
+
+	@Test
+	public void chess960Games()
+	{
+		assertSameMovesAlongGame(null, "qrkrnnbb/pppppppp/8/8/8/8/PPPPPPPP/QRKRNNBB", "1. Nd3 Nd6 2. Ne3 Ne6 3. f4 f5 4. Bf2 Bf7 5. O-O O-O");
+		assertSameMovesAlongGame(null, "rqkrbbnn/pppppppp/8/8/8/8/PPPPPPPP/RQKRBBNN", "1. c3 g6 2. Qc2 f5");
+	}
+
+	@Test
+	public void suicideGames()
+	{
+		assertSameMovesAlongGame(Variant.SUICIDE, null, "1. e3 c5 2. Ba6 Nxa6 3. Qh5 Qb6 4. Qxc5 Nxc5 5. e4 Nxe4 6. b4 Nxf2 7. Kxf2 Qxb4 "
+				+ "8. Bb2 Qxd2 9. Bxg7 Qxf2 10. Bxf8 Qxg2 11. Bxe7 Qxg1 12. Rxg1 Kxe7 13. Rxg8 Rxg8 14. Nd2 Rg3 15. hxg3 Ke6 16. Nb3 a6 "
+				+ "17. Nc5 b5 18. Nxa6 Bxa6 19. c4 bxc4 20. a3 c3 21. Rf1 Bxf1 22. g4 Rxa3 23. g5 h5");
+		assertSameMovesAlongGame(Variant.SUICIDE, null, "1. Na3 Nf6 2. Nc4 Nd5 3. Nd6 exd6 4. Nh3 Nb6 5. g4 Ke7 6. b4 Ke6 7. f3 Qe8 "
+				+ "8. Kf2 Be7 9. Ke3 Bd8 10. Kd4 Qe7 11. Nf2 Re8 12. Nd3 Qf8 13. Bb2 Re7 14. Qb1 Qe8 15. Nc1 Qf8 16. g5 Na4 17. g6 Nxb2 "
+				+ "18. gxh7 Nd1 19. Kd3 f6 20. Kd4 Qf7 21. h8=N Qg8 22. Ng6 Re8");
+	}
+
+	@Test
+	public void antikingGames()
+	{
+		assertSameMovesAlongGame(Variant.ANTIKING, null, "1. Nd4 Ng5 2. dc4 ed5 3. Ne2 Qe6 4. Qd3 fe5 5. cb4 d4 6. Nf4 dxd3 "
+				+ "7. Nxe6+ Nxe6 8. Ne4 Bc3 9. Ag7 Nd4 10. Af7 Bd7 11. Ae6 b5 12. Bxc3 a4 13. Bxd4 Bb5+ 14. Ad7 Bxc4 15. Rc2 Ab2 "
+				+ "16. Rxc4 Ac2 17. Nxd6 b7 18. f4 Ra8+ 19. Ac6 b6 20. Re6 Nf5+ 21. Ab5 a5+ 22. Ab6 c6+ 23. Aa7 Rd8 24. Ab7 Rh8+ "
+				+ "25. Ac8 Rxd6+ 26. Ad7 Rxe6+ 27. Ad6 Re1 28. Ac5 b5+ 29. Axb4 axa3 30. a4 axa4 31. Rc8+ Kf7 32. Rxh8 bc4+ 33. Ac3 cb3+ "
+				+ "34. Ad2 e2+ 35. Axd1+ Ac3 36. Bb6+ Ad4 37. Bd8#");
+	}
+
+	@Test
+	public void kiwipete()
+	{
+		ChessRules rules = new ChessRules(null);
+		GamePosition position = rules.parsePosition("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		assertSameMovesInTree(rules, new ChessRules(null, true), position, rules.initialPositionFromBoard(null).getBoard(), 2);
+	}
+
+	@Test
+	public void enPassantAndPromotion()
+	{
+		ChessRules rules = new ChessRules(null);
+		Board initialBoard = rules.initialPositionFromBoard(null).getBoard();
+		ChessRules bitboardRules = new ChessRules(null, true);
+		assertSameMovesInTree(rules, bitboardRules, rules.parsePosition("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"), initialBoard, 3);
+		assertSameMovesInTree(rules, bitboardRules, rules.parsePosition("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1"), initialBoard, 2);
+	}
+
+	private void assertSameMovesAlongGame(Variant variant, String initialBoard, String notation)
+	{
+		ChessRules rules = new ChessRules(variant);
+		ChessRules bitboardRules = new ChessRules(variant, true);
+
+		Game game = bitboardRules.newGame(initialBoard, notation, Locale.ENGLISH);
+		assertEquals(notation, rules.formatGame(game, Locale.ENGLISH));
+
+		Board board = game.getInitialPosition().getBoard();
+		for (int i = 0; i < game.getSize(); i++)
+			assertSameMoves(rules, bitboardRules, game.getPosition(i), board);
+	}
+
+	private void assertSameMovesInTree(ChessRules rules, ChessRules bitboardRules, GamePosition position, Board initialBoard, int depth)
+	{
+		assertSameMoves(rules, bitboardRules, position, initialBoard);
+
+		if (depth > 1)
+		{
+			for (GameMove move : rules.allowedMoves(position, initialBoard))
+			{
+				List<MicroOperation> ops = rules.disassembleMove(move, position, initialBoard);
+				rules.doOperations(ops, position);
+				assertSameMovesInTree(rules, bitboardRules, position, initialBoard, depth - 1);
+				rules.undoOperations(ops, position);
+			}
+		}
+	}
+
+	private void assertSameMoves(ChessRules rules, ChessRules bitboardRules, GamePosition position, Board initialBoard)
+	{
+		assertEquals(rules.formatPosition(position), new HashSet<GameMove>(rules.allowedMoves(position, initialBoard)), new HashSet<GameMove>(
+				bitboardRules.allowedMoves(position, initialBoard)));
+	}
+}
@@ -18,6 +18,7 @@
 package de.schildbach.game.chess;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 
 import java.io.ByteArrayInputStream;
@@ -28,6 +29,9 @@ import java.io.ObjectOutputStream;
 
 import org.junit.Test;
 
+import de.schildbach.game.Game;
+import de.schildbach.game.GamePosition;
+
 /**
  * @author Andreas Schildbach
  */
@@ -55,6 +59,27 @@ public class ChessPositionTest extends AbstractChessTest
 		assertNotSame(position1, position2);
 	}
 
+	@Test
+	public void zobristKey()
+	{
+		Game game = game(null, "1. e4 d5 2. exd5 c5 3. dxc6 Nxc6 4. Nf3 Bg4 5. Be2 Qd6 6. O-O O-O-O 7. Re1 Kb8");
+		for (int i = 0; i <= game.getSize(); i++)
+		{
+			GamePosition position = i < game.getSize() ? game.getPosition(i) : game.getActualPosition();
+			assertEquals(position.getZobristKey(), position(format(position)).getZobristKey());
+		}
+
+		long key = game.getActualPosition().getZobristKey();
+		rules.undoLastMove(game);
+		assertFalse(key == game.getActualPosition().getZobristKey());
+		rules.executeMove(game, move("c8", "b8"));
+		assertEquals(key, game.getActualPosition().getZobristKey());
+
+		while (!game.isEmpty())
+			rules.undoLastMove(game);
+		assertEquals(defaultInitialPosition().getZobristKey(), game.getActualPosition().getZobristKey());
+	}
+
 	@Test
 	public void testClone()
 	{
@@ -29,6 +29,7 @@ import java.util.Locale;
 import org.junit.Test;
 
 import de.schildbach.game.Board;
+import de.schildbach.game.Coordinate;
 import de.schildbach.game.Game;
 import de.schildbach.game.GameMove;
 import de.schildbach.game.GamePosition;
@@ -65,6 +66,32 @@ public class ChessRulesTest extends AbstractChessTest
 		assertFalse(moves.contains(move("f3", "e6")));
 	}
 
+	@Test
+	public void pinnedPieces()
+	{
+		// knight and pawn are pinned
+		GamePosition position = position("4k3/4r3/8/b7/8/8/3PN3/4K3 w - - 0 1");
+		Collection<? extends GameMove> moves = allowedMoves(position, null);
+		assertEquals(3, moves.size());
+		assertTrue(moves.contains(move("e1", "f2")));
+
+		// pinned rook may move along the pin
+		position = position("4k3/4r3/8/8/8/8/4R3/4K3 w - - 0 1");
+		moves = allowedMoves(position, null);
+		assertEquals(9, moves.size());
+		assertTrue(moves.contains(move("e2", "e7")));
+		assertFalse(moves.contains(move("e2", "d2")));
+
+		// looking for pins leaves the board alone, neither the king nor the pinned pawn can move
+		position = position("4k3/8/8/8/3b4/1p6/PP2N3/KB6 w - - 0 1");
+		Board board = position.getBoard();
+		Coordinate firstPiece = board.locatePiece(0, 0);
+		long modCount = board.getModCount();
+		allowedMoves(position, null);
+		assertEquals(modCount, board.getModCount());
+		assertEquals(firstPiece, board.locatePiece(0, 0));
+	}
+
 	@Test
 	public void test()
 	{
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import de.schildbach.game.Board;
+import de.schildbach.game.Coordinate;
+import de.schildbach.game.chess.ChessPosition;
+import de.schildbach.game.chess.ChessRules;
+import de.schildbach.game.chess.piece.Rook;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class AttackMapTest
+{
+	private static final ChessRules RULES = new ChessRules(null);
+
+	@Test
+	public void forgetsAnswersWhenBoardIsModified()
+	{
+		Board board = RULES.getBoardGeometry().newBoard();
+		CapturingGamePosition position = new ChessPosition(board);
+		Coordinate a1 = RULES.getBoardGeometry().locateCoordinate("a1");
+
+		AttackMap attackMap = position.attackMap(RULES);
+		assertSame(attackMap, position.attackMap(RULES));
+		assertEquals(-1, attackMap.lookup(a1.getKey(), 0));
+
+		attackMap.store(a1.getKey(), 0, true);
+		assertEquals(1, attackMap.lookup(a1.getKey(), 0));
+		assertEquals(-1, attackMap.lookup(a1.getKey(), 1));
+
+		board.setPiece(RULES.getBoardGeometry().locateCoordinate("h8"), RULES.getPieceSet().getPiece(Rook.class, 1));
+		assertEquals(-1, attackMap.lookup(a1.getKey(), 0));
+	}
+
+	@Test
+	public void notSharedWithClones()
+	{
+		CapturingGamePosition position = new ChessPosition(RULES.getBoardGeometry().newBoard());
+		AttackMap attackMap = position.attackMap(RULES);
+
+		CapturingGamePosition clone = (CapturingGamePosition) position.clone();
+		assertNotSame(attackMap, clone.attackMap(RULES));
+		assertNotSame(attackMap, position.attackMap(new ChessRules(null)));
+	}
+}
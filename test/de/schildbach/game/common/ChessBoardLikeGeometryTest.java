@@ -17,7 +17,9 @@
 
 package de.schildbach.game.common;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -57,4 +59,29 @@ public class ChessBoardLikeGeometryTest
 		// same square
 		assertEquals(0, geometry.distance(geometry.locateCoordinate("e5"), geometry.locateCoordinate("e5")));
 	}
+
+	@Test
+	public void cachedVectors()
+	{
+		assertSame(geometry.kingVectors2D(), geometry.kingVectors2D());
+		assertEquals(8, geometry.kingVectors2D().size());
+		assertEquals(8, geometry.knightVectors2D().size());
+
+		int[] forward = geometry.forwardDir(1);
+		Vectors diagonals = geometry.forwardDiagonalVectors2D(1);
+		assertArrayEquals(geometry.vectorAdd(forward, geometry.kingSideDir()), diagonals.get(0));
+		assertArrayEquals(geometry.vectorAdd(forward, geometry.queenSideDir()), diagonals.get(1));
+	}
+
+	@Test
+	public void vectorsCannotBeAltered()
+	{
+		int[] knight = geometry.knightVectors2D().get(0);
+		knight[0] = 0;
+		assertArrayEquals(new int[] { 1, 2 }, geometry.knightVectors2D().get(0));
+		assertEquals(1, geometry.knightVectors2D().component(0, 0));
+
+		assertSame(geometry.bidirectional(geometry.north()), geometry.bidirectional(geometry.north()));
+		assertArrayEquals(geometry.south(), geometry.bidirectional(geometry.north()).get(1));
+	}
 }
@@ -20,9 +20,16 @@ package de.schildbach.game.common;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 
 import org.junit.Test;
 
+import de.schildbach.game.Coordinate;
+
 /**
  * @author Andreas Schildbach
  */
@@ -59,4 +66,94 @@ public class OrthogonalBoardGeometryTest
 		assertEquals(1, geometry.computeCoordinateKey(new int[] { 1, 7, 0 }));
 		assertEquals(287, geometry.computeCoordinateKey(new int[] { 11, 0, 2 }));
 	}
+
+	@Test
+	public void rays()
+	{
+		OrthogonalBoardGeometry geometry = new OrthogonalBoardGeometry(new int[] { 8, 8 }, new CoordinateFieldNotations('a', '1'));
+
+		int northEast = geometry.directionIndex(new int[] { 1, 1 });
+		int[] ray = geometry.rayKeys(geometry.locateCoordinate("c1").getKey(), northEast);
+		assertEquals(5, ray.length);
+		assertEquals(geometry.locateCoordinate("d2").getKey(), ray[0]);
+		assertEquals(geometry.locateCoordinate("h6").getKey(), ray[4]);
+		assertEquals(-1, geometry.neighbourKey(geometry.locateCoordinate("h6").getKey(), northEast));
+		assertEquals(-1, geometry.directionIndex(new int[] { 2, 1 }));
+		assertEquals(-1, geometry.directionIndex(new int[] { 0, 0 }));
+
+		assertSame(geometry.locateCoordinate("h6"), geometry.vectorAddMax(geometry.locateCoordinate("c1"), new int[] { 1, 1 }));
+		assertSame(geometry.locateCoordinate("c1"), geometry.vectorAddMax(geometry.locateCoordinate("c1"), new int[] { 0, -1 }));
+	}
+
+	@Test
+	public void vectorAdd3D()
+	{
+		OrthogonalBoardGeometry geometry = new OrthogonalBoardGeometry(new int[] { 12, 8, 3 }, new BigCoordinateFieldNotations());
+
+		int[][] vectors = new int[][] { { 1, 0 }, { 0, -1, 1 }, { -1, 1, -1 }, { 2, 1 }, { 0, 0, 2 } };
+		for (Iterator<Coordinate> iCoordinate = geometry.coordinateIterator(); iCoordinate.hasNext();)
+		{
+			Coordinate c = iCoordinate.next();
+			int[] components = geometry.getComponents(c);
+			for (int[] vector : vectors)
+			{
+				for (int factor = -2; factor <= 2; factor++)
+				{
+					int[] expected = components.clone();
+					for (int i = 0; i < vector.length; i++)
+						expected[i] += vector[i] * factor;
+					assertSame(geometry.getCoordinate(expected), geometry.vectorAdd(c, vector, factor));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void fillVisitsEachCoordinateOnce()
+	{
+		OrthogonalBoardGeometry geometry = new OrthogonalBoardGeometry(new int[] { 5, 5 }, new CoordinateFieldNotations('a', '1'));
+
+		final Set<Coordinate> visited = new HashSet<Coordinate>();
+		final int[] count = new int[1];
+		geometry.fill(geometry.locateCoordinate("c3"), new OrthogonalBoardGeometry.CoordinateHook()
+		{
+			public boolean doNode(Coordinate coordinate)
+			{
+				visited.add(coordinate);
+				count[0]++;
+				return true;
+			}
+		});
+		assertEquals(25, visited.size());
+		assertEquals(25, count[0]);
+	}
+
+	@Test
+	public void fillAgainAndFromWithinFill()
+	{
+		final OrthogonalBoardGeometry geometry = new OrthogonalBoardGeometry(new int[] { 3, 3 }, new CoordinateFieldNotations('a', '1'));
+
+		final int[] count = new int[2];
+		for (int i = 0; i < 2; i++)
+		{
+			geometry.fill(geometry.locateCoordinate("a1"), new OrthogonalBoardGeometry.CoordinateHook()
+			{
+				public boolean doNode(Coordinate coordinate)
+				{
+					count[0]++;
+					geometry.fill(coordinate, new OrthogonalBoardGeometry.CoordinateHook()
+					{
+						public boolean doNode(Coordinate coordinate)
+						{
+							count[1]++;
+							return true;
+						}
+					});
+					return true;
+				}
+			});
+		}
+		assertEquals(2 * 9, count[0]);
+		assertEquals(2 * 9 * 9, count[1]);
+	}
 }
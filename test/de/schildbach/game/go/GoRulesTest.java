@@ -18,16 +18,29 @@
 package de.schildbach.game.go;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import de.schildbach.game.AbstractGameRulesTest;
 import de.schildbach.game.Board;
+import de.schildbach.game.Coordinate;
 import de.schildbach.game.Game;
+import de.schildbach.game.GameMove;
 import de.schildbach.game.GameRules;
+import de.schildbach.game.MicroOperation;
 import de.schildbach.game.Piece;
 import de.schildbach.game.common.SingleCoordinateMove;
+import de.schildbach.game.exception.ParseException;
 
 /**
  * @author Andreas Schildbach
@@ -125,17 +138,43 @@ public class GoRulesTest extends AbstractGameRulesTest
 	@Test
 	public void suicideInCorner()
 	{
-		Game game = game(null, "1. 2/9 9/9 2. 1/8 1/9");
-		assertEquals("1b6w/b8/9/9/9/9/9/9/9", rules.formatBoard(game.getActualPosition().getBoard()));
+		Game game = game(null, "1. 3/9 1/9 2. 2/8 9/1 3. 1/8 2/9");
+		assertEquals("2b6/bb7/9/9/9/9/9/9/8w", rules.formatBoard(game.getActualPosition().getBoard()));
 		rules.undoLastMove(game);
-		assertEquals("1b6w/b8/9/9/9/9/9/9/9", rules.formatBoard(game.getActualPosition().getBoard()));
+		assertEquals("w1b6/bb7/9/9/9/9/9/9/8w", rules.formatBoard(game.getActualPosition().getBoard()));
 	}
 
-	@Test
-	public void suicideInMiddle()
+	@Test(expected = ParseException.class)
+	public void suicideOfSingleStoneRepeatsBoard()
 	{
-		Game game = game(null, "1. 4/5 9/9 2. 6/5 8/9 3. 5/6 7/9 4. 5/4 5/5");
+		Game game = game(null, "1. 4/5 9/9 2. 6/5 8/9 3. 5/6 7/9 4. 5/4");
 		assertEquals("6www/9/9/4b4/3b1b3/4b4/9/9/9", rules.formatBoard(game.getActualPosition().getBoard()));
+		assertFalse(rules.allowedMoves(game).contains(new SingleCoordinateMove(coordinate("5/5"))));
+		move("5/5", game.getActualPosition(), null);
+	}
+
+	@Test
+	public void ko()
+	{
+		Game game = game(null, "1. 4/5 6/4 2. 5/4 6/6 3. 5/6 7/5 4. 6/5 5/5");
+		assertEquals("9/9/9/4bw3/3bw1w2/4bw3/9/9/9", rules.formatBoard(game.getActualPosition().getBoard()));
+		GameMove retake = new SingleCoordinateMove(coordinate("6/5"));
+		assertFalse(rules.allowedMoves(game).contains(retake));
+		try
+		{
+			rules.parseMove("6/5", Locale.ENGLISH, game);
+			fail();
+		}
+		catch (ParseException x)
+		{
+			// expected
+		}
+
+		// after a ko threat, the stone may be retaken
+		rules.executeMoves(game, "5. 1/1 9/9", Locale.ENGLISH);
+		assertTrue(rules.allowedMoves(game).contains(retake));
+		rules.executeMove(game, retake);
+		assertEquals("8w/9/9/4bw3/3b1bw2/4bw3/9/9/b8", rules.formatBoard(game.getActualPosition().getBoard()));
 	}
 
 	@Test
@@ -144,4 +183,62 @@ public class GoRulesTest extends AbstractGameRulesTest
 		Game game = game(null, "1. 4/7 5/7 2. 5/6 6/6 3. 5/5 1/9 4. 5/8 2/9 5. 6/8 3/9 6. 7/7 4/9 7. 7/6 5/9 8. 7/5 6/9 9. 6/4 6/5 10. 9/9 6/7");
 		assertEquals("wwwwww2b/4bb3/3b2b2/4b1b2/4b1b2/5b3/9/9/9", rules.formatBoard(game.getActualPosition().getBoard()));
 	}
+
+	@Test
+	public void largeBoard()
+	{
+		GoRules rules = new GoRules(null, 19);
+		Game game = rules.newGame(null, "1. 19/19 19/18 2. 1/1 18/19", Locale.ENGLISH);
+		// suicide into the corner would repeat the board
+		assertEquals(19 * 19 - 3, rules.allowedMoves(game).size());
+		String board = rules.formatBoard(game.getActualPosition().getBoard());
+		assertEquals("89w1/99w/955/955/955/955/955/955/955/955/955/955/955/955/955/955/955/955/b99", board);
+
+		Board parsed = rules.getBoardGeometry().newBoard();
+		rules.parseBoard(parsed, board);
+		assertEquals(game.getActualPosition().getBoard(), parsed);
+	}
+
+	@Test
+	public void stringsAfterRandomMovesAndUndo()
+	{
+		Random random = new Random(1);
+		GoPosition position = (GoPosition) game(null).getActualPosition().clone();
+		GoStrings strings = position.strings(GO_RULES);
+		for (int ply = 0; ply < 400; ply++)
+		{
+			String before = rules.formatPosition(position);
+			List<GameMove> moves = new ArrayList<GameMove>(allowedMoves(position, null));
+			List<MicroOperation> ops = rules.disassembleMove(moves.get(random.nextInt(moves.size())), position, null);
+
+			rules.doOperations(ops, position);
+			assertStrings(position);
+
+			if (random.nextInt(4) == 0)
+			{
+				rules.undoOperations(ops, position);
+				assertEquals(before, rules.formatPosition(position));
+				assertStrings(position);
+				rules.doOperations(ops, position);
+				assertStrings(position);
+			}
+		}
+
+		// strings have been updated in place and captures did happen
+		assertSame(strings, position.strings(GO_RULES));
+		assertTrue(position.hasAnythingBeenCaptured());
+	}
+
+	private void assertStrings(GoPosition position)
+	{
+		Board board = position.getBoard();
+		GoStrings strings = position.strings(GO_RULES);
+		GoStrings expected = new GoStrings(GO_RULES, board);
+		for (Coordinate coordinate : board.locateOccupiedFields())
+		{
+			int key = coordinate.getKey();
+			assertEquals(expected.size(key), strings.size(key));
+			assertTrue(strings.hasLiberties(key));
+		}
+	}
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2001-2011 the original author or authors.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.schildbach.game.go;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.schildbach.game.BoardGeometry;
+import de.schildbach.game.go.GoScoring.Method;
+
+/**
+ * @author Andreas Schildbach
+ */
+public class GoScoringTest
+{
+	private static final GoRules RULES = new GoRules(null);
+
+	/** walls on files 4 and 6, a white stone inside the territory of black */
+	private static final String BOARD = "3b1w3/3b1w3/3b1w3/3b1w3/1w1b1w3/3b1w3/3b1w3/3b1w3/3b1w3";
+
+	private BoardGeometry geometry;
+	private GoPosition position;
+
+	@Before
+	public void setup()
+	{
+		geometry = RULES.getBoardGeometry();
+		position = (GoPosition) RULES.newGame(BOARD).getActualPosition().clone();
+	}
+
+	@Test
+	public void unmarked()
+	{
+		GoScoring scoring = RULES.scoring(position);
+		assertEquals(GoScoring.NEUTRAL, scoring.getOwner(geometry.locateCoordinate("1/5")));
+		assertEquals(GoScoring.NEUTRAL, scoring.getOwner(geometry.locateCoordinate("5/5")));
+		assertEquals(1, scoring.getOwner(geometry.locateCoordinate("9/1")));
+		assertEquals(1, scoring.getOwner(geometry.locateCoordinate("2/5")));
+		assertThat(scoring.score(Method.AREA, 0), equalTo(new float[] { 9, 37 }));
+		assertThat(scoring.score(Method.TERRITORY, 0), equalTo(new float[] { 0, 27 }));
+	}
+
+	@Test
+	public void markDead()
+	{
+		GoScoring scoring = RULES.scoring(position);
+		scoring.toggleDead(geometry.locateCoordinate("2/5"));
+		assertTrue(scoring.isDead(geometry.locateCoordinate("2/5")));
+		assertEquals(0, scoring.getOwner(geometry.locateCoordinate("2/5")));
+		assertEquals(0, scoring.getOwner(geometry.locateCoordinate("1/1")));
+		assertEquals(GoScoring.NEUTRAL, scoring.getOwner(geometry.locateCoordinate("5/5")));
+		assertThat(scoring.score(Method.AREA, 6.5f), equalTo(new float[] { 36, 42.5f }));
+		assertThat(scoring.score(Method.TERRITORY, 6.5f), equalTo(new float[] { 28, 33.5f }));
+
+		scoring.toggleDead(geometry.locateCoordinate("2/5"));
+		assertFalse(scoring.isDead(geometry.locateCoordinate("2/5")));
+		assertThat(scoring.score(Method.AREA, 0), equalTo(new float[] { 9, 37 }));
+	}
+
+	@Test
+	public void markDeadString()
+	{
+		GoScoring scoring = RULES.scoring(position);
+		scoring.toggleDead(geometry.locateCoordinate("4/1"));
+		for (int rank = 1; rank <= 9; rank++)
+			assertTrue(scoring.isDead(geometry.locateCoordinate("4/" + rank)));
+
+		// without the black wall, white owns the whole board
+		assertThat(scoring.score(Method.AREA, 0), equalTo(new float[] { 0, 81 }));
+	}
+
+	@Test
+	public void prisoners()
+	{
+		position.addCaptureCount(0, 2);
+		GoScoring scoring = RULES.scoring(position);
+		assertThat(scoring.score(Method.TERRITORY, 0), equalTo(new float[] { 0, 29 }));
+		assertThat(scoring.score(Method.AREA, 0), equalTo(new float[] { 9, 37 }));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void markEmptyField()
+	{
+		RULES.scoring(position).toggleDead(geometry.locateCoordinate("5/5"));
+	}
+}
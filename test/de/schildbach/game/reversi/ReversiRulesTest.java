@@ -17,7 +17,11 @@
 
 package de.schildbach.game.reversi;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -63,6 +67,17 @@ public class ReversiRulesTest extends AbstractGameRulesTest
 		assertEquals(0, game.getActualPosition().getActivePlayerIndex());
 	}
 
+	@Test
+	public void flipInSeveralDirections()
+	{
+		Game game = game("1wb5/ww6/b1b5/8/8/8/8/8");
+		assertFalse(rules.isFinished(game));
+		rules.executeMove(game, move("a1"));
+		assertEquals("bbb5/bb6/b1b5/8/8/8/8/8", rules.formatBoard(game.getActualPosition().getBoard()));
+		assertTrue(rules.isFinished(game));
+		assertThat(rules.points(game), equalTo(new float[] { 7, 0 }));
+	}
+
 	private Set<GameMove> moves(String... coordinates)
 	{
 		Set<GameMove> moves = new HashSet<GameMove>();